@@ -4,6 +4,15 @@ import java.util.Comparator;
 
 /**
  * Binary Search Array template.
+ * <p>
+ * The static methods are the primitive specializations for int[], long[] and double[], with the same contract:
+ * lowerBound is the number of elements less than target, upperBound the number of elements less than or equal to it.
+ * They are branchless: the search range only ever shrinks by half from the top, and the only decision, whether
+ * the base moves up, is a conditional move rather than a jump, so there is no branch misprediction, at the cost
+ * of always doing the full lgn probes. See {@link EytzingerLongArray} for a more cache-friendly layout.
+ * <p>
+ * The batch lowerBound answers sorted queries by galloping from the previous answer, so a batch of close queries
+ * costs O(lg(distance)) per query instead of O(lgn).
  *
  * @param <T>
  */
@@ -42,4 +51,170 @@ public class BinarySearchArray<T> {
         }
         return end;
     }
+
+    public static int lowerBound(int[] arr, int target) {
+        return lowerBound(arr, 0, arr.length, target);
+    }
+
+    /**
+     * Branchless lower bound in arr[from..to).
+     *
+     * @param arr    the sorted array
+     * @param from   the first index, inclusive
+     * @param to     the last index, exclusive
+     * @param target the searched element
+     * @return the first index in [from, to] whose element is not less than target, to if there is none.
+     */
+    public static int lowerBound(int[] arr, int from, int to, int target) {
+        int base = from;
+        int len = to - from;
+        if (len <= 0) {
+            return from;
+        }
+        while (len > 1) {
+            int half = len >>> 1;
+            base = arr[base + half] < target ? base + half : base;
+            len -= half;
+        }
+        return arr[base] < target ? base + 1 : base;
+    }
+
+    public static int upperBound(int[] arr, int target) {
+        int base = 0;
+        int len = arr.length;
+        if (len == 0) {
+            return 0;
+        }
+        while (len > 1) {
+            int half = len >>> 1;
+            base = arr[base + half] <= target ? base + half : base;
+            len -= half;
+        }
+        return arr[base] <= target ? base + 1 : base;
+    }
+
+    public static int lowerBound(long[] arr, long target) {
+        return lowerBound(arr, 0, arr.length, target);
+    }
+
+    /**
+     * Branchless lower bound in arr[from..to).
+     *
+     * @param arr    the sorted array
+     * @param from   the first index, inclusive
+     * @param to     the last index, exclusive
+     * @param target the searched element
+     * @return the first index in [from, to] whose element is not less than target, to if there is none.
+     */
+    public static int lowerBound(long[] arr, int from, int to, long target) {
+        int base = from;
+        int len = to - from;
+        if (len <= 0) {
+            return from;
+        }
+        while (len > 1) {
+            int half = len >>> 1;
+            base = arr[base + half] < target ? base + half : base;
+            len -= half;
+        }
+        return arr[base] < target ? base + 1 : base;
+    }
+
+    public static int upperBound(long[] arr, long target) {
+        int base = 0;
+        int len = arr.length;
+        if (len == 0) {
+            return 0;
+        }
+        while (len > 1) {
+            int half = len >>> 1;
+            base = arr[base + half] <= target ? base + half : base;
+            len -= half;
+        }
+        return arr[base] <= target ? base + 1 : base;
+    }
+
+    /**
+     * Branchless lower bound, doubles are ordered by {@link Double#compare}, as sorted by
+     * {@link java.util.Arrays#sort(double[])}: -0.0 is less than 0.0, and NaN is greater than everything.
+     */
+    public static int lowerBound(double[] arr, double target) {
+        int base = 0;
+        int len = arr.length;
+        if (len == 0) {
+            return 0;
+        }
+        while (len > 1) {
+            int half = len >>> 1;
+            base = Double.compare(arr[base + half], target) < 0 ? base + half : base;
+            len -= half;
+        }
+        return Double.compare(arr[base], target) < 0 ? base + 1 : base;
+    }
+
+    public static int upperBound(double[] arr, double target) {
+        int base = 0;
+        int len = arr.length;
+        if (len == 0) {
+            return 0;
+        }
+        while (len > 1) {
+            int half = len >>> 1;
+            base = Double.compare(arr[base + half], target) <= 0 ? base + half : base;
+            len -= half;
+        }
+        return Double.compare(arr[base], target) <= 0 ? base + 1 : base;
+    }
+
+    /**
+     * Batch lower bound: out[i] = lowerBound(arr, queries[i]).
+     * Each search gallops from the previous answer: probe 1, 2, 4, ... elements ahead until passing the query,
+     * then search the last gap only.
+     *
+     * @param arr     the sorted array
+     * @param queries the queries, sorted
+     * @param out     the answers, at least as long as queries
+     * @throws IllegalArgumentException if the queries are not sorted.
+     */
+    public static void lowerBound(int[] arr, int[] queries, int[] out) {
+        int prev = 0;
+        for (int i = 0; i < queries.length; i++) {
+            if (i > 0 && queries[i] < queries[i - 1]) {
+                throw new IllegalArgumentException("queries must be sorted, at index " + i);
+            }
+            int step = 1;
+            int lo = prev;
+            while (step <= arr.length - lo && arr[lo + step - 1] < queries[i]) {
+                lo += step;
+                step <<= 1;
+            }
+            prev = lowerBound(arr, lo, Math.min(arr.length, lo + step - 1), queries[i]);
+            out[i] = prev;
+        }
+    }
+
+    /**
+     * Batch lower bound: out[i] = lowerBound(arr, queries[i]), see {@link #lowerBound(int[], int[], int[])}.
+     *
+     * @param arr     the sorted array
+     * @param queries the queries, sorted
+     * @param out     the answers, at least as long as queries
+     * @throws IllegalArgumentException if the queries are not sorted.
+     */
+    public static void lowerBound(long[] arr, long[] queries, int[] out) {
+        int prev = 0;
+        for (int i = 0; i < queries.length; i++) {
+            if (i > 0 && queries[i] < queries[i - 1]) {
+                throw new IllegalArgumentException("queries must be sorted, at index " + i);
+            }
+            int step = 1;
+            int lo = prev;
+            while (step <= arr.length - lo && arr[lo + step - 1] < queries[i]) {
+                lo += step;
+                step <<= 1;
+            }
+            prev = lowerBound(arr, lo, Math.min(arr.length, lo + step - 1), queries[i]);
+            out[i] = prev;
+        }
+    }
 }
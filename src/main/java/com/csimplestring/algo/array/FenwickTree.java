@@ -0,0 +1,183 @@
+package com.csimplestring.algo.array;
+
+/**
+ * FenwickTree (binary indexed tree) is the mutable companion of {@link PrefixSumArray}: a point update and a range
+ * sum both take O(lgn) time, where a prefix sum array answers in O(1) but needs an O(n) rebuild after any update.
+ * <p>
+ * tree[i] (1-based) holds the sum of the (i &amp; -i) elements ending at i, so:
+ * - a prefix sum walks down i -= i &amp; -i, adding at most lgn nodes;
+ * - an update walks up i += i &amp; -i, touching at most lgn nodes.
+ * The whole structure is a single long[] of n + 1 entries, built in O(n) time by pushing each node into its parent.
+ * <p>
+ * The public indexes are 0-based like the arrays it is built from.
+ */
+public class FenwickTree {
+
+    private final long[] tree;
+    private final int n;
+
+    /**
+     * Constructor, all zeros.
+     *
+     * @param n the number of elements
+     */
+    public FenwickTree(int n) {
+        this.n = n;
+        this.tree = new long[n + 1];
+    }
+
+    /**
+     * Build from initial values in O(n) time.
+     *
+     * @param values the initial values
+     * @return the tree
+     */
+    public static FenwickTree of(int[] values) {
+        FenwickTree t = new FenwickTree(values.length);
+        for (int i = 0; i < values.length; i++) {
+            t.tree[i + 1] = values[i];
+        }
+        t.build();
+        return t;
+    }
+
+    /**
+     * Build from initial values in O(n) time.
+     *
+     * @param values the initial values
+     * @return the tree
+     */
+    public static FenwickTree of(long[] values) {
+        FenwickTree t = new FenwickTree(values.length);
+        System.arraycopy(values, 0, t.tree, 1, values.length);
+        t.build();
+        return t;
+    }
+
+    /**
+     * Add delta to element i in O(lgn) time.
+     *
+     * @param i     the index
+     * @param delta the delta, may be negative
+     */
+    public void add(int i, long delta) {
+        checkIndex(i);
+        for (int x = i + 1; x <= n; x += x & -x) {
+            tree[x] += delta;
+        }
+    }
+
+    /**
+     * Set element i to value in O(lgn) time.
+     *
+     * @param i     the index
+     * @param value the new value
+     */
+    public void set(int i, long value) {
+        add(i, value - get(i));
+    }
+
+    /**
+     * Apply a batch of point updates: deltas[k] is added to element indexes[k].
+     * A small batch is applied one by one in O(k lgn) time, a large one by taking the tree apart into the plain
+     * values, adding the deltas and building it again, in O(n + k) time.
+     *
+     * @param indexes the indexes, may repeat
+     * @param deltas  the deltas
+     */
+    public void addAll(int[] indexes, long[] deltas) {
+        if (indexes.length != deltas.length) {
+            throw new IllegalArgumentException("indexes and deltas must have the same length");
+        }
+        if ((long) indexes.length * (32 - Integer.numberOfLeadingZeros(n)) < n) {
+            for (int k = 0; k < indexes.length; k++) {
+                add(indexes[k], deltas[k]);
+            }
+            return;
+        }
+
+        for (int i : indexes) {
+            checkIndex(i);
+        }
+        unbuild();
+        for (int k = 0; k < indexes.length; k++) {
+            tree[indexes[k] + 1] += deltas[k];
+        }
+        build();
+    }
+
+    /**
+     * @return the value of element i, in O(lgn) time.
+     */
+    public long get(int i) {
+        return rangeSum(i, i);
+    }
+
+    /**
+     * Sum of elements 0..i in O(lgn) time.
+     *
+     * @param i the last index, inclusive, -1 for an empty prefix
+     * @return the prefix sum
+     */
+    public long prefixSum(int i) {
+        if (i < -1 || i >= n) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + n);
+        }
+        long s = 0;
+        for (int x = i + 1; x > 0; x -= x & -x) {
+            s += tree[x];
+        }
+        return s;
+    }
+
+    /**
+     * Sum of elements i..j in O(lgn) time, with the same bounds as {@link PrefixSumArray#rangeSum(long[], int, int)}.
+     *
+     * @param i the first index, inclusive
+     * @param j the last index, inclusive
+     * @return the range sum, 0 if i &gt; j
+     */
+    public long rangeSum(int i, int j) {
+        if (i > j) {
+            return 0;
+        }
+        return prefixSum(j) - prefixSum(i - 1);
+    }
+
+    /**
+     * @return the number of elements.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Turn the plain values stored at tree[1..n] into the tree, each node pushing its sum into its parent.
+     */
+    private void build() {
+        for (int x = 1; x <= n; x++) {
+            int parent = x + (x & -x);
+            if (parent <= n) {
+                tree[parent] += tree[x];
+            }
+        }
+    }
+
+    /**
+     * The reverse of build, from the last node down, so each node is taken out of its parent once it is final.
+     */
+    private void unbuild() {
+        for (int x = n; x >= 1; x--) {
+            int parent = x + (x & -x);
+            if (parent <= n) {
+                tree[parent] -= tree[x];
+            }
+        }
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + n);
+        }
+    }
+}
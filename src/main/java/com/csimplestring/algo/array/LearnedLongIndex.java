@@ -0,0 +1,302 @@
+package com.csimplestring.algo.array;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * LearnedLongIndex searches a sorted file of longs, mapped with {@link FileChannel#map}, with a learned index:
+ * a piecewise-linear model from key to position, in the spirit of the PGM-index, instead of a binary search over the
+ * whole file, which costs about lgn cache misses (or page faults) per lookup.
+ * <p>
+ * Building streams the file once and cuts it into segments with the shrinking cone algorithm: a segment starts at
+ * a key, and keeps the range of slopes which predict the position of every following key within epsilon; as soon as
+ * that range becomes empty, a new segment starts. Only the first position of each distinct key is fitted, and the
+ * segments are 3 primitive arrays, usually tiny compared to the data, so they stay in cache.
+ * <p>
+ * A lookup binary searches the segment of the target, predicts its position, and searches only the 2 * epsilon
+ * positions around it. Duplicate runs or rounding may put the answer outside that window, which is detected from
+ * the keys just outside it, then the search gallops from the window to the answer, so the result is always exact.
+ * <p>
+ * The contract is the one of {@link BinarySearchArray}: lowerBound is the number of keys less than target.
+ * Positions are longs, the file is mapped in 1GB segments like {@link MappedPrefixSumArray}.
+ */
+public class LearnedLongIndex {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] mappings;
+    private final long n;
+    private final int epsilon;
+
+    /**
+     * the model: segment s covers the keys from firstKeys[s], predicting firstPositions[s] + slopes[s] * (key -
+     * firstKeys[s]).
+     */
+    private final long[] firstKeys;
+    private final long[] firstPositions;
+    private final double[] slopes;
+
+    private LearnedLongIndex(ByteBuffer[] mappings, long n, int epsilon) {
+        this.mappings = mappings;
+        this.n = n;
+        this.epsilon = epsilon;
+
+        Fitter fitter = new Fitter(epsilon);
+        long prev = 0;
+        for (long i = 0; i < n; i++) {
+            long key = key(i);
+            if (i > 0 && key < prev) {
+                throw new IllegalArgumentException("the keys are not sorted at position " + i);
+            }
+            if (i == 0 || key != prev) {
+                fitter.add(key, i);
+            }
+            prev = key;
+        }
+        fitter.close();
+        this.firstKeys = Arrays.copyOf(fitter.keys, fitter.num);
+        this.firstPositions = Arrays.copyOf(fitter.positions, fitter.num);
+        this.slopes = Arrays.copyOf(fitter.slopes, fitter.num);
+    }
+
+    /**
+     * Map a sorted long file and fit the model, in one sequential pass over the file.
+     *
+     * @param file    the file of sorted longs, no header
+     * @param order   the byte order of the longs
+     * @param epsilon the maximum prediction error, in positions, e.g., 64: a lookup scans about 2 * epsilon keys,
+     *                the larger it is, the fewer segments.
+     * @return the index
+     * @throws IOException if the file can not be mapped
+     */
+    public static LearnedLongIndex open(Path file, ByteOrder order, int epsilon) throws IOException {
+        if (epsilon < 1) {
+            throw new IllegalArgumentException("epsilon must be positive: " + epsilon);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % Long.BYTES != 0) {
+                throw new IllegalArgumentException("a long file has 8 bytes per key, got " + bytes + " bytes");
+            }
+            ByteBuffer[] mappings = new ByteBuffer[(int) ((bytes + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < mappings.length; s++) {
+                long position = (long) s << SEGMENT_SHIFT;
+                // the mappings stay valid after the channel is closed
+                mappings[s] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_MASK + 1, bytes - position)).order(order);
+            }
+            return new LearnedLongIndex(mappings, bytes / Long.BYTES, epsilon);
+        }
+    }
+
+    /**
+     * @return the number of keys.
+     */
+    public long size() {
+        return n;
+    }
+
+    /**
+     * @return the number of segments of the model.
+     */
+    public int segmentNum() {
+        return firstKeys.length;
+    }
+
+    /**
+     * @return the key at position i.
+     */
+    public long get(long i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + n);
+        }
+        return key(i);
+    }
+
+    /**
+     * @return the number of keys less than target.
+     */
+    public long lowerBound(long target) {
+        if (n == 0) {
+            return 0;
+        }
+        int s = BinarySearchArray.upperBound(firstKeys, target) - 1;
+        if (s < 0) {
+            return 0;
+        }
+
+        long end = s + 1 < firstKeys.length ? firstPositions[s + 1] : n;
+        // clamped to the segment, so the window arithmetic below can not overflow
+        long predicted = (long) Math.min(end, firstPositions[s] + slopes[s] * ((double) target - firstKeys[s]));
+        long lo = Math.max(firstPositions[s], predicted - epsilon - 1);
+        long hi = Math.min(end, predicted + epsilon + 2);
+
+        long r = search(lo, hi, target);
+        if (r == lo && lo > 0 && key(lo - 1) >= target) {
+            return gallopDown(lo, target);
+        }
+        if (r == hi && hi < n && key(hi) < target) {
+            return gallopUp(hi, target);
+        }
+        return r;
+    }
+
+    /**
+     * @return the number of keys less than or equal to target.
+     */
+    public long upperBound(long target) {
+        return target == Long.MAX_VALUE ? n : lowerBound(target + 1);
+    }
+
+    /**
+     * @return {lowerBound(target), upperBound(target)}, the positions [from, to) of the keys equal to target.
+     */
+    public long[] equalRange(long target) {
+        long from = lowerBound(target);
+        if (from == n || key(from) != target) {
+            return new long[]{from, from};
+        }
+        return new long[]{from, upperBound(target)};
+    }
+
+    /**
+     * Iterate over the keys in [fromKey, toKey), in order, straight from the mapping.
+     *
+     * @param fromKey the smallest key, inclusive
+     * @param toKey   the largest key, exclusive
+     * @return the keys
+     */
+    public PrimitiveIterator.OfLong range(long fromKey, long toKey) {
+        long from = lowerBound(fromKey);
+        long to = Math.max(from, lowerBound(toKey));
+        return new PrimitiveIterator.OfLong() {
+            private long i = from;
+
+            @Override
+            public boolean hasNext() {
+                return i < to;
+            }
+
+            @Override
+            public long nextLong() {
+                if (i >= to) {
+                    throw new NoSuchElementException();
+                }
+                return key(i++);
+            }
+        };
+    }
+
+    /**
+     * @return the first position in [lo, hi] whose key is not less than target, hi if there is none.
+     */
+    private long search(long lo, long hi, long target) {
+        long base = lo;
+        long len = hi - lo;
+        if (len == 0) {
+            return lo;
+        }
+        while (len > 1) {
+            long half = len >>> 1;
+            base = key(base + half) < target ? base + half : base;
+            len -= half;
+        }
+        return key(base) < target ? base + 1 : base;
+    }
+
+    /**
+     * The answer is after hi, knowing key(hi) &lt; target: probe 1, 2, 4, ... keys further, then search the gap.
+     */
+    private long gallopUp(long hi, long target) {
+        long lo = hi + 1;
+        long step = 1;
+        while (step <= n - lo && key(lo + step - 1) < target) {
+            lo += step;
+            step <<= 1;
+        }
+        return search(lo, Math.min(n, lo + step - 1), target);
+    }
+
+    /**
+     * The answer is before lo, knowing key(lo - 1) &gt;= target.
+     */
+    private long gallopDown(long lo, long target) {
+        long hi = lo - 1;
+        long step = 1;
+        while (step <= hi && key(hi - step) >= target) {
+            hi -= step;
+            step <<= 1;
+        }
+        return search(Math.max(0, hi - step), hi, target);
+    }
+
+    private long key(long i) {
+        long position = i * Long.BYTES;
+        return mappings[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Fitter is the shrinking cone: the current segment starts at (x0, y0), and [low, high] is the range of slopes
+     * keeping every point added since within epsilon.
+     */
+    private static class Fitter {
+        private final int epsilon;
+        private long[] keys = new long[16];
+        private long[] positions = new long[16];
+        private double[] slopes = new double[16];
+        private int num = 0;
+
+        private long x0;
+        private long y0;
+        private double low;
+        private double high;
+
+        Fitter(int epsilon) {
+            this.epsilon = epsilon;
+        }
+
+        void add(long x, long y) {
+            if (num > 0) {
+                double dx = (double) x - x0;
+                double lower = (y - epsilon - y0) / dx;
+                double upper = (y + epsilon - y0) / dx;
+                if (Math.max(low, lower) <= Math.min(high, upper)) {
+                    low = Math.max(low, lower);
+                    high = Math.min(high, upper);
+                    return;
+                }
+                close();
+            }
+
+            if (num == keys.length) {
+                keys = Arrays.copyOf(keys, num * 2);
+                positions = Arrays.copyOf(positions, num * 2);
+                slopes = Arrays.copyOf(slopes, num * 2);
+            }
+            keys[num] = x;
+            positions[num] = y;
+            num++;
+            x0 = x;
+            y0 = y;
+            low = 0;
+            high = Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Fix the slope of the current segment in the middle of its cone.
+         */
+        void close() {
+            if (num > 0) {
+                slopes[num - 1] = high == Double.POSITIVE_INFINITY ? 0 : (low + high) / 2;
+            }
+        }
+    }
+}
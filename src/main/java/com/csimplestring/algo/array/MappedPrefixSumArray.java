@@ -0,0 +1,263 @@
+package com.csimplestring.algo.array;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedPrefixSumArray is the off-heap counterpart of {@link PrefixSumArray}, for arrays larger than the heap:
+ * the prefix sums are written into a file, and queried directly through {@link FileChannel#map}.
+ * <p>
+ * Compiling streams the input, from any channel or from a {@link ByteBuffer} (itself possibly mapped), through two
+ * fixed buffers: the input is read and the sums are written sequentially, so the heap used does not depend on
+ * the size of the array.
+ * <p>
+ * The file holds one more long than the input, starting with 0, so the sum of any range is the difference of
+ * 2 longs, thus at most 2 page reads however large the file is. In big endian:
+ * <pre>
+ * header: int magic, int version, long n
+ * sums:   long 0, long num[0], long num[0] + num[1], ... n + 1 longs in total
+ * </pre>
+ * A single mapping is limited to 2GB, so the file is mapped in 1GB segments. A segment size being a multiple of
+ * 8 bytes, no long ever straddles 2 segments.
+ */
+public class MappedPrefixSumArray {
+
+    private static final int MAGIC = 0x50534D41;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final ByteBuffer[] segments;
+    private final long size;
+
+    private MappedPrefixSumArray(ByteBuffer[] segments, long bytes) {
+        ByteBuffer first = segments.length == 0 ? ByteBuffer.allocate(0) : segments[0];
+        if (first.capacity() < HEADER_BYTES || first.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a prefix sum file");
+        }
+        if (first.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("unsupported prefix sum file version: " + first.getInt(4));
+        }
+        long size = first.getLong(8);
+        // a truncated or overlong file would silently answer wrong sums
+        if (size < 0 || (bytes - HEADER_BYTES) / Long.BYTES != size + 1 || (bytes - HEADER_BYTES) % Long.BYTES != 0) {
+            throw new IllegalArgumentException("corrupted prefix sum file: " + bytes + " bytes for " + size
+                    + " elements");
+        }
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Compile the prefix sums of a stream of ints, the file is overwritten if it exists.
+     *
+     * @param in    the input, read until its end
+     * @param order the byte order of the input ints
+     * @param file  the prefix sum file
+     * @throws IOException if the input can not be read or the file can not be written
+     */
+    public static void compileInts(ReadableByteChannel in, ByteOrder order, Path file) throws IOException {
+        compile(in, order, Integer.BYTES, file);
+    }
+
+    /**
+     * Compile the prefix sums of a stream of longs, the file is overwritten if it exists.
+     *
+     * @param in    the input, read until its end
+     * @param order the byte order of the input longs
+     * @param file  the prefix sum file
+     * @throws IOException if the input can not be read or the file can not be written
+     */
+    public static void compileLongs(ReadableByteChannel in, ByteOrder order, Path file) throws IOException {
+        compile(in, order, Long.BYTES, file);
+    }
+
+    /**
+     * Compile the prefix sums of the ints remaining in a buffer, read in the buffer's byte order.
+     * The position of the buffer is not changed.
+     *
+     * @param in   the input
+     * @param file the prefix sum file
+     * @throws IOException if the file can not be written
+     */
+    public static void compileInts(ByteBuffer in, Path file) throws IOException {
+        compile(in, Integer.BYTES, file);
+    }
+
+    /**
+     * Compile the prefix sums of the longs remaining in a buffer, read in the buffer's byte order.
+     * The position of the buffer is not changed.
+     *
+     * @param in   the input
+     * @param file the prefix sum file
+     * @throws IOException if the file can not be written
+     */
+    public static void compileLongs(ByteBuffer in, Path file) throws IOException {
+        compile(in, Long.BYTES, file);
+    }
+
+    /**
+     * Open a prefix sum file, only the mappings are set up, no data is read.
+     *
+     * @param file the prefix sum file
+     * @return the prefix sums
+     * @throws IOException if the file can not be mapped
+     */
+    public static MappedPrefixSumArray open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) ((bytes + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s++) {
+                long position = (long) s << SEGMENT_SHIFT;
+                // the mappings stay valid after the channel is closed
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_MASK + 1, bytes - position));
+            }
+            return new MappedPrefixSumArray(segments, bytes);
+        }
+    }
+
+    /**
+     * @return the number of elements of the input.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Sum of the first i elements.
+     *
+     * @param i the number of elements, from 0 to size()
+     * @return the prefix sum, 0 if i == 0
+     */
+    public long prefixSum(long i) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+        }
+        long position = HEADER_BYTES + i * Long.BYTES;
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Sum of elements i..j, with the same bounds as {@link PrefixSumArray#rangeSum(long[], int, int)}.
+     *
+     * @param i the first index, inclusive
+     * @param j the last index, inclusive
+     * @return the range sum, 0 if i &gt; j
+     */
+    public long rangeSum(long i, long j) {
+        if (i > j) {
+            return 0;
+        }
+        return prefixSum(j + 1) - prefixSum(i);
+    }
+
+    /**
+     * @return the value of element i of the input.
+     */
+    public long get(long i) {
+        return rangeSum(i, i);
+    }
+
+    private static void compile(ReadableByteChannel in, ByteOrder order, int valueBytes, Path file)
+            throws IOException {
+        try (Writer writer = new Writer(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(order);
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                writer.consume(buffer, valueBytes);
+                buffer.compact();
+            }
+            buffer.flip();
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("the input ends with a partial value of " + buffer.remaining()
+                        + " bytes");
+            }
+            writer.finish();
+        }
+    }
+
+    private static void compile(ByteBuffer in, int valueBytes, Path file) throws IOException {
+        if (in.remaining() % valueBytes != 0) {
+            throw new IllegalArgumentException("the input ends with a partial value of "
+                    + in.remaining() % valueBytes + " bytes");
+        }
+        try (Writer writer = new Writer(file)) {
+            writer.consume(in.duplicate().order(in.order()), valueBytes);
+            writer.finish();
+        }
+    }
+
+    /**
+     * Writer appends the running sums to the file through a fixed buffer, and writes the header when finished.
+     * Closed without being finished, e.g., on a read error or a partial value, it deletes the file, so a half
+     * compiled file can never be opened.
+     */
+    private static class Writer implements AutoCloseable {
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private long sum = 0;
+        private long count = 0;
+        private boolean finished = false;
+
+        Writer(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.channel.position(HEADER_BYTES);
+            this.out.putLong(0);
+        }
+
+        /**
+         * Consume all the whole values remaining in the buffer.
+         */
+        void consume(ByteBuffer in, int valueBytes) throws IOException {
+            while (in.remaining() >= valueBytes) {
+                sum += valueBytes == Integer.BYTES ? in.getInt() : in.getLong();
+                count++;
+                if (!out.hasRemaining()) {
+                    flush();
+                }
+                out.putLong(sum);
+            }
+        }
+
+        private void flush() throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+        }
+
+        /**
+         * Flush the last sums and write the header, the last step of a successful compile.
+         */
+        void finish() throws IOException {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(count).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (!finished) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.csimplestring.algo.array;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
 /**
  * PrefixSumArray offers some static methods to calculate the prefix sum array.
  * The prefix sum array is a commonly-used technique to pre-process an array.
@@ -10,9 +14,23 @@ package com.csimplestring.algo.array;
  * <p>
  * What is the usage of it?
  * sum[j] - sum[i] quickly gives the sum of elements a[i, j], which avoid O(n) time to calculate.
+ * <p>
+ * Variants:
+ * - {@link #sum(int[])} keeps the int type of its input, so it overflows beyond 2^31,
+ * {@link #longSum(int[])} accumulates the same ints into longs instead;
+ * - the parallel variants run a blocked scan on the common pool: each block is summed in parallel, the block totals
+ * are prefix-summed into the offset of each block, then each block is scanned in parallel from its offset.
+ * The input is read twice, but by all cores, which pays off from about a million elements;
+ * - {@link #sum2D} and {@link #sum3D} build padded tables, table[i + 1][j + 1] being the sum of the rectangle
+ * [0..i] x [0..j], so {@link #rangeSum(long[][], int, int, int, int)} answers any rectangle in O(1) time.
  */
 public class PrefixSumArray {
 
+    /**
+     * below this many elements, the parallel variants run sequentially.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     public static int[] sum(int[] num) {
         int[] res = new int[num.length];
         if (num.length == 0) {
@@ -26,5 +44,385 @@ public class PrefixSumArray {
 
         return res;
     }
-}
 
+    /**
+     * Prefix sum of ints accumulated into longs, so it does not overflow before 2^63.
+     *
+     * @param num the input
+     * @return the prefix sums
+     */
+    public static long[] longSum(int[] num) {
+        long[] res = new long[num.length];
+        long s = 0;
+        for (int i = 0; i < num.length; i++) {
+            s += num[i];
+            res[i] = s;
+        }
+        return res;
+    }
+
+    public static long[] sum(long[] num) {
+        long[] res = new long[num.length];
+        long s = 0;
+        for (int i = 0; i < num.length; i++) {
+            s += num[i];
+            res[i] = s;
+        }
+        return res;
+    }
+
+    public static double[] sum(double[] num) {
+        double[] res = new double[num.length];
+        double s = 0;
+        for (int i = 0; i < num.length; i++) {
+            s += num[i];
+            res[i] = s;
+        }
+        return res;
+    }
+
+    /**
+     * Parallel {@link #longSum(int[])}, the result is exactly the same.
+     *
+     * @param num the input
+     * @return the prefix sums
+     */
+    public static long[] parallelLongSum(int[] num) {
+        int n = num.length;
+        int blocks = blockNum(n);
+        if (blocks == 1) {
+            return longSum(num);
+        }
+
+        long[] offsets = new long[blocks + 1];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long s = 0;
+            for (int i = blockStart(b, blocks, n); i < blockStart(b + 1, blocks, n); i++) {
+                s += num[i];
+            }
+            offsets[b + 1] = s;
+        });
+        for (int b = 0; b < blocks; b++) {
+            offsets[b + 1] += offsets[b];
+        }
+
+        long[] res = new long[n];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long s = offsets[b];
+            for (int i = blockStart(b, blocks, n); i < blockStart(b + 1, blocks, n); i++) {
+                s += num[i];
+                res[i] = s;
+            }
+        });
+        return res;
+    }
+
+    /**
+     * Parallel {@link #sum(long[])}, the result is exactly the same.
+     *
+     * @param num the input
+     * @return the prefix sums
+     */
+    public static long[] parallelSum(long[] num) {
+        int n = num.length;
+        int blocks = blockNum(n);
+        if (blocks == 1) {
+            return sum(num);
+        }
+
+        long[] offsets = new long[blocks + 1];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long s = 0;
+            for (int i = blockStart(b, blocks, n); i < blockStart(b + 1, blocks, n); i++) {
+                s += num[i];
+            }
+            offsets[b + 1] = s;
+        });
+        for (int b = 0; b < blocks; b++) {
+            offsets[b + 1] += offsets[b];
+        }
+
+        long[] res = new long[n];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            long s = offsets[b];
+            for (int i = blockStart(b, blocks, n); i < blockStart(b + 1, blocks, n); i++) {
+                s += num[i];
+                res[i] = s;
+            }
+        });
+        return res;
+    }
+
+    /**
+     * Parallel {@link #sum(double[])}. Floating point addition is not associative, so the result may differ from the
+     * sequential one in the last bits, and depends on the number of cores.
+     *
+     * @param num the input
+     * @return the prefix sums
+     */
+    public static double[] parallelSum(double[] num) {
+        int n = num.length;
+        int blocks = blockNum(n);
+        if (blocks == 1) {
+            return sum(num);
+        }
+
+        double[] offsets = new double[blocks + 1];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            double s = 0;
+            for (int i = blockStart(b, blocks, n); i < blockStart(b + 1, blocks, n); i++) {
+                s += num[i];
+            }
+            offsets[b + 1] = s;
+        });
+        for (int b = 0; b < blocks; b++) {
+            offsets[b + 1] += offsets[b];
+        }
+
+        double[] res = new double[n];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            double s = offsets[b];
+            for (int i = blockStart(b, blocks, n); i < blockStart(b + 1, blocks, n); i++) {
+                s += num[i];
+                res[i] = s;
+            }
+        });
+        return res;
+    }
+
+    /**
+     * Sum of num[i..j] from the prefix sums of num.
+     *
+     * @param sum the prefix sums, see {@link #sum(long[])}
+     * @param i   the first index, inclusive
+     * @param j   the last index, inclusive
+     * @return the range sum, 0 if i &gt; j
+     */
+    public static long rangeSum(long[] sum, int i, int j) {
+        if (i > j) {
+            return 0;
+        }
+        return i == 0 ? sum[j] : sum[j] - sum[i - 1];
+    }
+
+    public static double rangeSum(double[] sum, int i, int j) {
+        if (i > j) {
+            return 0;
+        }
+        return i == 0 ? sum[j] : sum[j] - sum[i - 1];
+    }
+
+    /**
+     * Build the padded 2D prefix sum table of a matrix, accumulated into longs.
+     *
+     * @param matrix a rows x cols matrix
+     * @return the (rows + 1) x (cols + 1) table, its first row and column are 0.
+     */
+    public static long[][] sum2D(int[][] matrix) {
+        int cols = cols(matrix.length, i -> matrix[i].length);
+        long[][] table = new long[matrix.length + 1][cols + 1];
+        rows(matrix.length, cols).forEach(i -> {
+            long s = 0;
+            for (int j = 0; j < cols; j++) {
+                s += matrix[i][j];
+                table[i + 1][j + 1] = s;
+            }
+        });
+        accumulateRows(table);
+        return table;
+    }
+
+    public static long[][] sum2D(long[][] matrix) {
+        int cols = cols(matrix.length, i -> matrix[i].length);
+        long[][] table = new long[matrix.length + 1][cols + 1];
+        rows(matrix.length, cols).forEach(i -> {
+            long s = 0;
+            for (int j = 0; j < cols; j++) {
+                s += matrix[i][j];
+                table[i + 1][j + 1] = s;
+            }
+        });
+        accumulateRows(table);
+        return table;
+    }
+
+    public static double[][] sum2D(double[][] matrix) {
+        int cols = cols(matrix.length, i -> matrix[i].length);
+        double[][] table = new double[matrix.length + 1][cols + 1];
+        rows(matrix.length, cols).forEach(i -> {
+            double s = 0;
+            for (int j = 0; j < cols; j++) {
+                s += matrix[i][j];
+                table[i + 1][j + 1] = s;
+            }
+        });
+        accumulateRows(table);
+        return table;
+    }
+
+    /**
+     * Sum of the rectangle [r1..r2] x [c1..c2] in O(1) time.
+     *
+     * @param table the table built by sum2D
+     * @param r1    the first row, inclusive
+     * @param c1    the first column, inclusive
+     * @param r2    the last row, inclusive
+     * @param c2    the last column, inclusive
+     * @return the rectangle sum
+     */
+    public static long rangeSum(long[][] table, int r1, int c1, int r2, int c2) {
+        return table[r2 + 1][c2 + 1] - table[r1][c2 + 1] - table[r2 + 1][c1] + table[r1][c1];
+    }
+
+    public static double rangeSum(double[][] table, int r1, int c1, int r2, int c2) {
+        return table[r2 + 1][c2 + 1] - table[r1][c2 + 1] - table[r2 + 1][c1] + table[r1][c1];
+    }
+
+    /**
+     * Build the padded 3D prefix sum table of a cube, accumulated into longs.
+     *
+     * @param cube an x * y * z cube
+     * @return the (x + 1) * (y + 1) * (z + 1) table, 0 wherever one index is 0.
+     */
+    public static long[][][] sum3D(int[][][] cube) {
+        int x = cube.length;
+        int y = cols(x, i -> cube[i].length);
+        int z = cols(x * y, ij -> cube[ij / y][ij % y].length);
+        long[][][] table = new long[x + 1][y + 1][z + 1];
+        rows(x, y * z).forEach(i -> {
+            for (int j = 0; j < y; j++) {
+                long s = 0;
+                for (int k = 0; k < z; k++) {
+                    s += cube[i][j][k];
+                    table[i + 1][j + 1][k + 1] = s;
+                }
+            }
+        });
+        accumulate3D(table);
+        return table;
+    }
+
+    public static long[][][] sum3D(long[][][] cube) {
+        int x = cube.length;
+        int y = cols(x, i -> cube[i].length);
+        int z = cols(x * y, ij -> cube[ij / y][ij % y].length);
+        long[][][] table = new long[x + 1][y + 1][z + 1];
+        rows(x, y * z).forEach(i -> {
+            for (int j = 0; j < y; j++) {
+                long s = 0;
+                for (int k = 0; k < z; k++) {
+                    s += cube[i][j][k];
+                    table[i + 1][j + 1][k + 1] = s;
+                }
+            }
+        });
+        accumulate3D(table);
+        return table;
+    }
+
+    /**
+     * Sum of the box [x1..x2] x [y1..y2] x [z1..z2] in O(1) time, by inclusion-exclusion of 8 corners.
+     *
+     * @param table the table built by sum3D
+     * @return the box sum
+     */
+    public static long rangeSum(long[][][] table, int x1, int y1, int z1, int x2, int y2, int z2) {
+        x2++;
+        y2++;
+        z2++;
+        return table[x2][y2][z2]
+                - table[x1][y2][z2] - table[x2][y1][z2] - table[x2][y2][z1]
+                + table[x1][y1][z2] + table[x1][y2][z1] + table[x2][y1][z1]
+                - table[x1][y1][z1];
+    }
+
+    /**
+     * Add each row of a table whose rows are already prefix-summed into the next one, the columns being split
+     * among the cores, so each core walks down its own stripe of columns.
+     */
+    private static void accumulateRows(long[][] table) {
+        int width = table[0].length;
+        int blocks = columnBlockNum(width);
+        columnBlocks(width).forEach(b -> {
+            int from = blockStart(b, blocks, width);
+            int to = blockStart(b + 1, blocks, width);
+            for (int i = 1; i < table.length; i++) {
+                for (int j = from; j < to; j++) {
+                    table[i][j] += table[i - 1][j];
+                }
+            }
+        });
+    }
+
+    private static void accumulateRows(double[][] table) {
+        int width = table[0].length;
+        int blocks = columnBlockNum(width);
+        columnBlocks(width).forEach(b -> {
+            int from = blockStart(b, blocks, width);
+            int to = blockStart(b + 1, blocks, width);
+            for (int i = 1; i < table.length; i++) {
+                for (int j = from; j < to; j++) {
+                    table[i][j] += table[i - 1][j];
+                }
+            }
+        });
+    }
+
+    /**
+     * The last axis is already prefix-summed, accumulate along the second axis within each plane, in parallel over
+     * the planes, then along the first axis, in parallel over the second one.
+     */
+    private static void accumulate3D(long[][][] table) {
+        int x = table.length;
+        int y = table[0].length;
+        IntStream.range(1, x).parallel().forEach(i -> accumulateRows(table[i]));
+        IntStream.range(1, y).parallel().forEach(j -> {
+            for (int i = 1; i < x; i++) {
+                long[] prev = table[i - 1][j];
+                long[] cur = table[i][j];
+                for (int k = 0; k < cur.length; k++) {
+                    cur[k] += prev[k];
+                }
+            }
+        });
+    }
+
+    private static int blockNum(int n) {
+        if (n < PARALLEL_THRESHOLD) {
+            return 1;
+        }
+        // a few blocks per core, so a slow core does not hold the others
+        return Math.min(n / (PARALLEL_THRESHOLD / 4), ForkJoinPool.getCommonPoolParallelism() * 4);
+    }
+
+    private static int blockStart(int b, int blocks, int n) {
+        return (int) ((long) n * b / blocks);
+    }
+
+    private static IntStream rows(int rows, int width) {
+        IntStream stream = IntStream.range(0, rows);
+        return (long) rows * width >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+    }
+
+    private static int columnBlockNum(int width) {
+        return Math.max(1, Math.min(width / 64, ForkJoinPool.getCommonPoolParallelism() * 4));
+    }
+
+    private static IntStream columnBlocks(int width) {
+        IntStream stream = IntStream.range(0, columnBlockNum(width));
+        return width >= PARALLEL_THRESHOLD / 64 ? stream.parallel() : stream;
+    }
+
+    /**
+     * @return the common length of the rows, or throws if they differ.
+     */
+    private static int cols(int rows, IntUnaryOperator length) {
+        int cols = rows == 0 ? 0 : length.applyAsInt(0);
+        for (int i = 1; i < rows; i++) {
+            if (length.applyAsInt(i) != cols) {
+                throw new IllegalArgumentException("the matrix is not rectangular");
+            }
+        }
+        return cols;
+    }
+}
@@ -0,0 +1,267 @@
+package com.csimplestring.algo.array;
+
+/**
+ * SegmentTree keeps the min and the max of any range of a long array under range updates: adding a delta to a range,
+ * and querying the min or the max of a range, both take O(lgn) time.
+ * <p>
+ * Node k covers a range [lo, hi], its children 2k and 2k + 1 cover the two halves. Each node stores the min and the
+ * max of its range, and a pending delta (lazy propagation): an update covering the whole range of a node stops there,
+ * the delta is pushed to the children only when a later call needs to go below that node.
+ * <p>
+ * It is built in O(n) time from an int[] or a long[], and a large batch of range additions is applied in
+ * O(n + k) time with a difference array instead of k updates, see {@link #addAll(int[], int[], long[])}.
+ * The public indexes are 0-based and the ranges are inclusive, as in {@link FenwickTree}.
+ */
+public class SegmentTree {
+
+    /**
+     * 2^29 elements take 2^30 nodes, twice more would not fit in an array.
+     */
+    private static final int MAX_SIZE = 1 << 29;
+
+    private final int n;
+    private final long[] min;
+    private final long[] max;
+    private final long[] lazy;
+
+    /**
+     * Constructor, all zeros.
+     *
+     * @param n the number of elements
+     */
+    public SegmentTree(int n) {
+        this(new long[checkSize(n)]);
+    }
+
+    /**
+     * Build from initial values in O(n) time.
+     *
+     * @param values the initial values
+     */
+    public SegmentTree(long[] values) {
+        this.n = checkSize(values.length);
+        // the tree is 1 + ceil(lgn) levels deep, so the nodes are numbered below 2 * 2^ceil(lgn)
+        int capacity = 2 << (32 - Integer.numberOfLeadingZeros(Math.max(1, n) - 1));
+        this.min = new long[capacity];
+        this.max = new long[capacity];
+        this.lazy = new long[capacity];
+        if (n > 0) {
+            build(1, 0, n - 1, values);
+        }
+    }
+
+    /**
+     * Build from initial values in O(n) time.
+     *
+     * @param values the initial values
+     * @return the tree
+     */
+    public static SegmentTree of(int[] values) {
+        long[] longs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longs[i] = values[i];
+        }
+        return new SegmentTree(longs);
+    }
+
+    /**
+     * Add delta to every element of [i..j] in O(lgn) time.
+     *
+     * @param i     the first index, inclusive
+     * @param j     the last index, inclusive
+     * @param delta the delta, may be negative
+     */
+    public void add(int i, int j, long delta) {
+        checkRange(i, j);
+        add(1, 0, n - 1, i, j, delta);
+    }
+
+    /**
+     * Add delta to element i in O(lgn) time.
+     */
+    public void add(int i, long delta) {
+        add(i, i, delta);
+    }
+
+    /**
+     * Apply a batch of range additions: deltas[k] is added to every element of [from[k]..to[k]].
+     * A small batch is applied one by one in O(k lgn) time, a large one by collecting the deltas in a difference
+     * array, adding its prefix sums to the current values and building the tree again, in O(n + k) time.
+     *
+     * @param from   the first index of each range, inclusive
+     * @param to     the last index of each range, inclusive
+     * @param deltas the deltas
+     */
+    public void addAll(int[] from, int[] to, long[] deltas) {
+        if (from.length != to.length || from.length != deltas.length) {
+            throw new IllegalArgumentException("from, to and deltas must have the same length");
+        }
+        for (int k = 0; k < from.length; k++) {
+            checkRange(from[k], to[k]);
+        }
+        if ((long) from.length * (32 - Integer.numberOfLeadingZeros(n)) < n) {
+            for (int k = 0; k < from.length; k++) {
+                add(1, 0, n - 1, from[k], to[k], deltas[k]);
+            }
+            return;
+        }
+
+        long[] diff = new long[n + 1];
+        for (int k = 0; k < from.length; k++) {
+            diff[from[k]] += deltas[k];
+            diff[to[k] + 1] -= deltas[k];
+        }
+        long[] values = new long[n];
+        collect(1, 0, n - 1, values);
+        long s = 0;
+        for (int i = 0; i < n; i++) {
+            s += diff[i];
+            values[i] += s;
+        }
+        build(1, 0, n - 1, values);
+    }
+
+    /**
+     * @return the value of element i, in O(lgn) time.
+     */
+    public long get(int i) {
+        return rangeMin(i, i);
+    }
+
+    /**
+     * Min of elements i..j in O(lgn) time.
+     *
+     * @param i the first index, inclusive
+     * @param j the last index, inclusive
+     * @return the min
+     */
+    public long rangeMin(int i, int j) {
+        checkRange(i, j);
+        return queryMin(1, 0, n - 1, i, j);
+    }
+
+    /**
+     * Max of elements i..j in O(lgn) time.
+     *
+     * @param i the first index, inclusive
+     * @param j the last index, inclusive
+     * @return the max
+     */
+    public long rangeMax(int i, int j) {
+        checkRange(i, j);
+        return queryMax(1, 0, n - 1, i, j);
+    }
+
+    /**
+     * @return the number of elements.
+     */
+    public int size() {
+        return n;
+    }
+
+    private void build(int k, int lo, int hi, long[] values) {
+        lazy[k] = 0;
+        if (lo == hi) {
+            min[k] = max[k] = values[lo];
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        build(2 * k, lo, mid, values);
+        build(2 * k + 1, mid + 1, hi, values);
+        pull(k);
+    }
+
+    private void add(int k, int lo, int hi, int i, int j, long delta) {
+        if (i <= lo && hi <= j) {
+            apply(k, delta);
+            return;
+        }
+        push(k);
+        int mid = (lo + hi) >>> 1;
+        if (i <= mid) {
+            add(2 * k, lo, mid, i, j, delta);
+        }
+        if (j > mid) {
+            add(2 * k + 1, mid + 1, hi, i, j, delta);
+        }
+        pull(k);
+    }
+
+    private long queryMin(int k, int lo, int hi, int i, int j) {
+        if (i <= lo && hi <= j) {
+            return min[k];
+        }
+        push(k);
+        int mid = (lo + hi) >>> 1;
+        long res = Long.MAX_VALUE;
+        if (i <= mid) {
+            res = queryMin(2 * k, lo, mid, i, j);
+        }
+        if (j > mid) {
+            res = Math.min(res, queryMin(2 * k + 1, mid + 1, hi, i, j));
+        }
+        return res;
+    }
+
+    private long queryMax(int k, int lo, int hi, int i, int j) {
+        if (i <= lo && hi <= j) {
+            return max[k];
+        }
+        push(k);
+        int mid = (lo + hi) >>> 1;
+        long res = Long.MIN_VALUE;
+        if (i <= mid) {
+            res = queryMax(2 * k, lo, mid, i, j);
+        }
+        if (j > mid) {
+            res = Math.max(res, queryMax(2 * k + 1, mid + 1, hi, i, j));
+        }
+        return res;
+    }
+
+    /**
+     * Write the current values of the range of node k into values, pushing every pending delta down to the leaves.
+     */
+    private void collect(int k, int lo, int hi, long[] values) {
+        if (lo == hi) {
+            values[lo] = min[k];
+            return;
+        }
+        push(k);
+        int mid = (lo + hi) >>> 1;
+        collect(2 * k, lo, mid, values);
+        collect(2 * k + 1, mid + 1, hi, values);
+    }
+
+    private void apply(int k, long delta) {
+        min[k] += delta;
+        max[k] += delta;
+        lazy[k] += delta;
+    }
+
+    private void push(int k) {
+        if (lazy[k] != 0) {
+            apply(2 * k, lazy[k]);
+            apply(2 * k + 1, lazy[k]);
+            lazy[k] = 0;
+        }
+    }
+
+    private void pull(int k) {
+        min[k] = Math.min(min[2 * k], min[2 * k + 1]);
+        max[k] = Math.max(max[2 * k], max[2 * k + 1]);
+    }
+
+    private static int checkSize(int n) {
+        if (n > MAX_SIZE) {
+            throw new IllegalArgumentException("too many elements: " + n);
+        }
+        return n;
+    }
+
+    private void checkRange(int i, int j) {
+        if (i < 0 || j >= n || i > j) {
+            throw new IndexOutOfBoundsException("range: [" + i + ", " + j + "], size: " + n);
+        }
+    }
+}
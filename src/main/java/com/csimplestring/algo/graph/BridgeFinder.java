@@ -0,0 +1,228 @@
+package com.csimplestring.algo.graph;
+
+/**
+ * BridgeFinder finds the bridges (cutting edges), the articulation points and the 2-edge-connected components of an
+ * undirected {@link CsrGraph}, with Tarjan's low-link DFS.
+ * <p>
+ * Same idea as {@link CuttingEdgeGraph}: ts[v] is the DFS order of v, low[v] is the smallest ts reachable from the
+ * subtree of v through one back edge. The tree edge (p, v) is a bridge iff low[v] &gt; ts[p], and a non-root p is an
+ * articulation point iff some child v has low[v] &gt;= ts[p] (a root iff it has at least 2 children).
+ * <p>
+ * Unlike a recursive DFS, the DFS here runs on explicit int stacks, so graphs of any depth are fine without -Xss.
+ * It restarts from every unvisited vertex, so disconnected graphs are handled, and it skips the edge to the parent
+ * by edge id rather than by vertex, so a parallel edge is correctly seen as a second path (never a bridge).
+ * The whole state is a few int arrays of size n, O(n + m) time.
+ */
+public class BridgeFinder {
+
+    private BridgeFinder() {
+    }
+
+    /**
+     * Run the DFS on an undirected graph.
+     *
+     * @param graph the undirected graph
+     * @return the bridges, articulation points and 2-edge-connected components
+     */
+    public static Result find(CsrGraph graph) {
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("bridges are defined on an undirected graph");
+        }
+        int n = graph.vertexNum();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] edgeIds = graph.edgeIds();
+
+        int[] ts = new int[n];
+        int[] low = new int[n];
+        // the edge id used to enter each vertex, -1 for roots
+        int[] parentEdge = new int[n];
+        // the DFS stack and, for each vertex on it, the next adjacency slot to look at
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        boolean[] bridges = new boolean[graph.edgeNum()];
+        boolean[] articulations = new boolean[n];
+        int bridgeNum = 0;
+
+        for (int v = 0; v < n; v++) {
+            ts[v] = -1;
+        }
+
+        int counter = 0;
+        for (int root = 0; root < n; root++) {
+            if (ts[root] >= 0) {
+                continue;
+            }
+
+            int top = 0;
+            int rootChildren = 0;
+            stack[top++] = root;
+            cursor[root] = offsets[root];
+            parentEdge[root] = -1;
+            ts[root] = low[root] = counter++;
+
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (cursor[v] < offsets[v + 1]) {
+                    int slot = cursor[v]++;
+                    int w = targets[slot];
+                    if (edgeIds[slot] == parentEdge[v]) {
+                        continue;
+                    }
+                    if (ts[w] < 0) {
+                        ts[w] = low[w] = counter++;
+                        parentEdge[w] = edgeIds[slot];
+                        cursor[w] = offsets[w];
+                        stack[top++] = w;
+                    } else {
+                        low[v] = Math.min(low[v], ts[w]);
+                    }
+                    continue;
+                }
+
+                // v is done, report to its parent
+                top--;
+                if (top == 0) {
+                    continue;
+                }
+                int p = stack[top - 1];
+                low[p] = Math.min(low[p], low[v]);
+                if (low[v] > ts[p]) {
+                    bridges[parentEdge[v]] = true;
+                    bridgeNum++;
+                }
+                if (p == root) {
+                    rootChildren++;
+                } else if (low[v] >= ts[p]) {
+                    articulations[p] = true;
+                }
+            }
+            if (rootChildren >= 2) {
+                articulations[root] = true;
+            }
+        }
+
+        return new Result(graph, bridges, bridgeNum, articulations);
+    }
+
+    /**
+     * Result of a {@link BridgeFinder} run, by edge id and vertex id.
+     */
+    public static class Result {
+        private final CsrGraph graph;
+        private final boolean[] bridges;
+        private final int bridgeNum;
+        private final boolean[] articulations;
+        private int[] components;
+        private int componentNum = -1;
+
+        Result(CsrGraph graph, boolean[] bridges, int bridgeNum, boolean[] articulations) {
+            this.graph = graph;
+            this.bridges = bridges;
+            this.bridgeNum = bridgeNum;
+            this.articulations = articulations;
+        }
+
+        /**
+         * @return true if edge e is a bridge.
+         */
+        public boolean isBridge(int e) {
+            return bridges[e];
+        }
+
+        /**
+         * @return the ids of the bridges, in ascending order.
+         */
+        public int[] bridges() {
+            int[] res = new int[bridgeNum];
+            int k = 0;
+            for (int e = 0; e < bridges.length; e++) {
+                if (bridges[e]) {
+                    res[k++] = e;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * @return true if removing v increases the number of connected components.
+         */
+        public boolean isArticulationPoint(int v) {
+            return articulations[v];
+        }
+
+        /**
+         * @return the articulation points, in ascending order.
+         */
+        public int[] articulationPoints() {
+            int num = 0;
+            for (boolean a : articulations) {
+                if (a) {
+                    num++;
+                }
+            }
+            int[] res = new int[num];
+            int k = 0;
+            for (int v = 0; v < articulations.length; v++) {
+                if (articulations[v]) {
+                    res[k++] = v;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Label the 2-edge-connected components: the connected components left once the bridges are removed.
+         * Computed on first call with an iterative BFS.
+         *
+         * @return labels[v] is the component of v, numbered from 0 by smallest vertex.
+         */
+        public int[] twoEdgeConnectedComponents() {
+            if (components != null) {
+                return components;
+            }
+            int n = graph.vertexNum();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            int[] edgeIds = graph.edgeIds();
+
+            int[] labels = new int[n];
+            for (int v = 0; v < n; v++) {
+                labels[v] = -1;
+            }
+            int[] queue = new int[n];
+            int count = 0;
+            for (int s = 0; s < n; s++) {
+                if (labels[s] >= 0) {
+                    continue;
+                }
+                int head = 0;
+                int tail = 0;
+                queue[tail++] = s;
+                labels[s] = count;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (!bridges[edgeIds[e]] && labels[w] < 0) {
+                            labels[w] = count;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+                count++;
+            }
+            components = labels;
+            componentNum = count;
+            return labels;
+        }
+
+        /**
+         * @return the number of 2-edge-connected components.
+         */
+        public int twoEdgeConnectedComponentNum() {
+            twoEdgeConnectedComponents();
+            return componentNum;
+        }
+    }
+}
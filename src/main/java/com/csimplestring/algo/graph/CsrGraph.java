@@ -0,0 +1,139 @@
+package com.csimplestring.algo.graph;
+
+/**
+ * CsrGraph is an immutable int-indexed graph in compressed sparse row (CSR) layout, the primitive counterpart of the
+ * map-based graphs of this package: no object per node or per edge, the whole graph is 3 int arrays.
+ * <p>
+ * The neighbours of vertex v are targets[offsets[v]] .. targets[offsets[v + 1] - 1], and edgeIds[i] is the index,
+ * in the original edge list, of the edge behind targets[i]. In an undirected graph each edge appears in the rows
+ * of both ends with the same id, which is how parallel edges are told apart.
+ * <p>
+ * It is built from an edge list with a count-then-fill pass: count the degrees, prefix-sum them into offsets,
+ * then drop every edge into its slot.
+ */
+public class CsrGraph {
+
+    private final int vertexNum;
+    private final int edgeNum;
+    private final boolean directed;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] edgeIds;
+
+    CsrGraph(int vertexNum, int edgeNum, boolean directed, int[] offsets, int[] targets, int[] edgeIds) {
+        this.vertexNum = vertexNum;
+        this.edgeNum = edgeNum;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edgeIds = edgeIds;
+    }
+
+    /**
+     * Build a directed graph, edge i goes from src[i] to dst[i].
+     *
+     * @param n   the number of vertices, ids are 0..n-1
+     * @param src the source of each edge
+     * @param dst the destination of each edge
+     * @return the graph
+     */
+    public static CsrGraph directed(int n, int[] src, int[] dst) {
+        return build(n, src, dst, true);
+    }
+
+    /**
+     * Build an undirected graph, edge i connects src[i] and dst[i].
+     *
+     * @param n   the number of vertices, ids are 0..n-1
+     * @param src one end of each edge
+     * @param dst the other end of each edge
+     * @return the graph
+     */
+    public static CsrGraph undirected(int n, int[] src, int[] dst) {
+        return build(n, src, dst, false);
+    }
+
+    private static CsrGraph build(int n, int[] src, int[] dst, boolean directed) {
+        if (src.length != dst.length) {
+            throw new IllegalArgumentException("src and dst must have the same length");
+        }
+        int m = src.length;
+        long slots = directed ? m : 2L * m;
+        if (slots > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many edges for a CSR graph: " + m);
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[src[i] + 1]++;
+            if (!directed) {
+                offsets[dst[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        int[] targets = new int[(int) slots];
+        int[] edgeIds = new int[(int) slots];
+        for (int i = 0; i < m; i++) {
+            int slot = cursor[src[i]]++;
+            targets[slot] = dst[i];
+            edgeIds[slot] = i;
+            if (!directed) {
+                slot = cursor[dst[i]]++;
+                targets[slot] = src[i];
+                edgeIds[slot] = i;
+            }
+        }
+        return new CsrGraph(n, m, directed, offsets, targets, edgeIds);
+    }
+
+    /**
+     * @return the number of vertices.
+     */
+    public int vertexNum() {
+        return vertexNum;
+    }
+
+    /**
+     * @return the number of edges of the original edge list.
+     */
+    public int edgeNum() {
+        return edgeNum;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * @return the out-degree of v, or its degree in an undirected graph.
+     */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * @return the row offsets, of length vertexNum() + 1.
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the neighbours, grouped by row.
+     */
+    public int[] targets() {
+        return targets;
+    }
+
+    /**
+     * @return the original edge index of each neighbour slot.
+     */
+    public int[] edgeIds() {
+        return edgeIds;
+    }
+}
@@ -1,6 +1,7 @@
 package com.csimplestring.algo.graph;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Find the cutting edge in a graph: the general idea is to DFS-visit each nodes:
@@ -13,78 +14,114 @@ import java.util.*;
  * <p>
  * walk through each edge(n1, n2), if the n1.timestamp < n2.ancestor or n2.timestamp < n1.ancestor
  * then this edge is a cutting edge.
+ * <p>
+ * The nodes are interned to int ids and the DFS itself runs iteratively on int arrays, see {@link BridgeFinder},
+ * so deep graphs do not overflow the stack, every connected component is visited,
+ * and an edge added twice is a pair of parallel edges, thus never a cutting edge.
  *
  * @param <S>
  */
 public class CuttingEdgeGraph<S> {
 
-    private final Map<S, Node<S>> nodes = new HashMap<>();
-    private final Set<S> visited = new HashSet<>();
+    private final Map<S, Integer> ids = new HashMap<>();
+    private final List<S> values = new ArrayList<>();
     private final List<Edge<S>> edges = new ArrayList<>();
-    private int counter = 0;
 
     public void addEdge(S s1, S s2) {
         this.edges.add(new Edge<>(s1, s2));
-
-        Node<S> node1 = nodes.getOrDefault(s1, new Node<>(s1));
-        Node<S> node2 = nodes.getOrDefault(s2, new Node<>(s2));
-
-        node1.connected.add(node2);
-        node2.connected.add(node1);
-        nodes.put(s1, node1);
-        nodes.put(s2, node2);
+        intern(s1);
+        intern(s2);
     }
 
     public List<Edge<S>> findCuttingEdge() {
-        if (this.nodes.isEmpty()) {
+        if (this.edges.isEmpty()) {
             return Collections.emptyList();
         }
 
-        Node<S> first = this.nodes.values().iterator().next();
-        this.visit(first, null);
-
+        BridgeFinder.Result result = BridgeFinder.find(toCsr());
         List<Edge<S>> cuttingEdges = new ArrayList<>();
-        for (Edge<S> edge : this.edges) {
-            Node<S> n1 = this.nodes.get(edge.start);
-            Node<S> n2 = this.nodes.get(edge.end);
-            if (n1.ts < n2.ancestor || n2.ts < n1.ancestor) {
-                cuttingEdges.add(edge);
-            }
+        for (int e : result.bridges()) {
+            cuttingEdges.add(this.edges.get(e));
         }
+        return cuttingEdges;
+    }
 
+    /**
+     * Find the cutting edges on several cores with {@link ParallelBridgeFinder}, worth it for large graphs only.
+     * The result is the same as {@link #findCuttingEdge()}.
+     *
+     * @param pool the pool running the parallel steps
+     * @return the cutting edges
+     */
+    public List<Edge<S>> findCuttingEdge(ForkJoinPool pool) {
+        if (this.edges.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Edge<S>> cuttingEdges = new ArrayList<>();
+        for (int e : ParallelBridgeFinder.findBridges(toCsr(), pool)) {
+            cuttingEdges.add(this.edges.get(e));
+        }
         return cuttingEdges;
     }
 
-    private int visit(Node<S> root, Node<S> parent) {
-        if (visited.contains(root.value)) {
-            return root.ancestor;
+    /**
+     * Find the articulation points: the nodes whose removal disconnects the graph.
+     *
+     * @return the articulation points
+     */
+    public List<S> findArticulationPoints() {
+        if (this.edges.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        BridgeFinder.Result result = BridgeFinder.find(toCsr());
+        List<S> points = new ArrayList<>();
+        for (int v : result.articulationPoints()) {
+            points.add(this.values.get(v));
+        }
+        return points;
+    }
+
+    /**
+     * Find the 2-edge-connected components: the groups of nodes still connected once all cutting edges are removed.
+     *
+     * @return the components
+     */
+    public List<List<S>> findTwoEdgeConnectedComponents() {
+        if (this.edges.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        visited.add(root.value);
-        root.ts = counter++;
-        root.ancestor = root.ts;
-
-        int minAncestor = root.ancestor;
-        for (Node<S> node : root.connected) {
-            if (parent == null) {
-                minAncestor = Math.min(minAncestor, visit(node, root));
-            }
-            if (parent != null && !parent.equals(node)) {
-                minAncestor = Math.min(minAncestor, visit(node, root));
-            }
+        BridgeFinder.Result result = BridgeFinder.find(toCsr());
+        int[] labels = result.twoEdgeConnectedComponents();
+        List<List<S>> components = new ArrayList<>(result.twoEdgeConnectedComponentNum());
+        for (int c = 0; c < result.twoEdgeConnectedComponentNum(); c++) {
+            components.add(new ArrayList<>());
+        }
+        for (int v = 0; v < labels.length; v++) {
+            components.get(labels[v]).add(this.values.get(v));
         }
-        root.ancestor = minAncestor;
-        return root.ancestor;
+        return components;
     }
 
-    private static class Node<T> {
-        public T value;
-        public Set<Node<T>> connected = new HashSet<>();
-        public int ts = 0;
-        public int ancestor = 0;
+    /**
+     * Freeze the graph into an undirected {@link CsrGraph}, edge ids being the indexes in edges.
+     */
+    CsrGraph toCsr() {
+        int[] src = new int[this.edges.size()];
+        int[] dst = new int[this.edges.size()];
+        for (int i = 0; i < this.edges.size(); i++) {
+            src[i] = this.ids.get(this.edges.get(i).start);
+            dst[i] = this.ids.get(this.edges.get(i).end);
+        }
+        return CsrGraph.undirected(this.values.size(), src, dst);
+    }
 
-        public Node(T value) {
-            this.value = value;
+    private void intern(S s) {
+        if (!this.ids.containsKey(s)) {
+            this.ids.put(s, this.values.size());
+            this.values.add(s);
         }
     }
 
@@ -0,0 +1,27 @@
+package com.csimplestring.algo.graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CyclicDependencyException is thrown when adding a dependency would create a cycle.
+ * It carries the offending path, which starts and ends with the same element.
+ */
+public class CyclicDependencyException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> path;
+
+    public CyclicDependencyException(List<?> path) {
+        super("cyclic dependency: " + path);
+        this.path = Collections.unmodifiableList(path);
+    }
+
+    /**
+     * @return the cycle, e.g., [A, B, C, A] when adding A -> B while C depends on B and A depends on C.
+     */
+    public List<?> getPath() {
+        return path;
+    }
+}
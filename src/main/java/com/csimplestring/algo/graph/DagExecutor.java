@@ -0,0 +1,405 @@
+package com.csimplestring.algo.graph;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * DagExecutor runs one task per node of a {@link TopologySortList}, starting each node as soon as all the nodes it
+ * depends on have finished, instead of running them one after another in topological order.
+ * <p>
+ * - the tasks run on any {@link Executor}: a {@link java.util.concurrent.ForkJoinPool}, a fixed thread pool,
+ * a virtual-thread-per-task executor on Java 21+, or even Runnable::run, running each task on the calling thread:
+ * the nodes are submitted from a single loop, so long dependency chains do not grow the stack;
+ * - at most maxConcurrency tasks run at the same time, whatever the size of the executor is;
+ * - a failed task cancels all the nodes depending on it, directly or not, the independent nodes still run;
+ * - the start time and the duration of every task are recorded in the {@link Report}.
+ * <p>
+ * The scheduling state is guarded by one lock, held only to pick ready nodes and to release the dependents of a
+ * finished one, never while a task runs.
+ */
+public class DagExecutor {
+
+    /**
+     * the states of a node during a run.
+     */
+    private static final byte PENDING = 0;
+    private static final byte RUNNING = 1;
+    private static final byte SUCCEEDED = 2;
+    private static final byte FAILED = 3;
+    private static final byte CANCELLED = 4;
+
+    private final Executor executor;
+    private final int maxConcurrency;
+
+    /**
+     * Constructor.
+     *
+     * @param executor       the executor running the tasks
+     * @param maxConcurrency how many tasks can run at the same time
+     */
+    public DagExecutor(Executor executor, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Run the task of every node and wait for all of them to finish.
+     *
+     * @param graph the dependency graph, it must not be modified during the run
+     * @param task  the task, called once per node with the node
+     * @param <T>   the node type
+     * @return the report, check {@link Report#isSuccessful()}
+     * @throws InterruptedException if interrupted while waiting, the running tasks are not interrupted.
+     */
+    public <T> Report<T> run(TopologySortList<T> graph, Consumer<? super T> task) throws InterruptedException {
+        try {
+            return execute(graph, task).get();
+        } catch (ExecutionException e) {
+            // task failures are recorded in the report, so this can only be a bug of the scheduler itself
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Start running the task of every node, without waiting.
+     *
+     * @param graph the dependency graph, it must not be modified during the run
+     * @param task  the task, called once per node with the node
+     * @param <T>   the node type
+     * @return the future report, completed when every node has either finished or been cancelled.
+     * @throws IllegalArgumentException if the graph has a cycle, then nothing is run.
+     */
+    public <T> CompletableFuture<Report<T>> execute(TopologySortList<T> graph, Consumer<? super T> task) {
+        List<T> vertices = new ArrayList<>();
+        CsrGraph csr = graph.freeze(vertices);
+        if (!isAcyclic(csr)) {
+            throw new IllegalArgumentException("the dependency graph has a cycle");
+        }
+        Run<T> run = new Run<>(vertices, csr, task);
+        run.start();
+        return run.future;
+    }
+
+    /**
+     * A sequential Kahn pass on the calling thread, so checking the graph never touches a pool the caller did not
+     * hand over.
+     *
+     * @return true if every vertex can be removed in topological order.
+     */
+    private static boolean isAcyclic(CsrGraph graph) {
+        int n = graph.vertexNum();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] inDegrees = new int[n];
+        for (int target : targets) {
+            inDegrees[target]++;
+        }
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegrees[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int v = queue[head];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (--inDegrees[targets[e]] == 0) {
+                    queue[tail++] = targets[e];
+                }
+            }
+        }
+        return tail == n;
+    }
+
+    /**
+     * Status of a node at the end of a run.
+     */
+    public enum Status {
+        SUCCEEDED, FAILED, CANCELLED
+    }
+
+    /**
+     * Run holds the scheduling state of one execution.
+     */
+    private class Run<T> {
+        private final List<T> vertices;
+        private final CsrGraph graph;
+        private final Consumer<? super T> task;
+        private final CompletableFuture<Report<T>> future = new CompletableFuture<>();
+
+        private final int[] pending;
+        private final byte[] states;
+        private final long[] starts;
+        private final long[] durations;
+        private final Throwable[] failures;
+
+        /**
+         * ready nodes, every node is queued at most once so n slots are enough.
+         */
+        private final int[] ready;
+        private int readyHead = 0;
+        private int readyTail = 0;
+
+        private int running = 0;
+        private int finished = 0;
+        private boolean draining = false;
+        private final long startNanos = System.nanoTime();
+
+        Run(List<T> vertices, CsrGraph graph, Consumer<? super T> task) {
+            int n = vertices.size();
+            this.vertices = vertices;
+            this.graph = graph;
+            this.task = task;
+            this.pending = new int[n];
+            this.states = new byte[n];
+            this.starts = new long[n];
+            this.durations = new long[n];
+            this.failures = new Throwable[n];
+            this.ready = new int[n];
+
+            for (int target : graph.targets()) {
+                this.pending[target]++;
+            }
+            for (int v = 0; v < n; v++) {
+                if (this.pending[v] == 0) {
+                    this.ready[this.readyTail++] = v;
+                }
+            }
+        }
+
+        void start() {
+            if (vertices.isEmpty()) {
+                future.complete(report());
+                return;
+            }
+            drain();
+        }
+
+        /**
+         * Submit ready nodes until none is left or the concurrency bound is reached. Only one thread drains at a
+         * time: a finish happening meanwhile, possibly nested in a submission by an executor running tasks on the
+         * calling thread, only queues its released nodes for the running drain loop, so the stack never grows
+         * with the length of a dependency chain.
+         */
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                int[] picked;
+                synchronized (this) {
+                    picked = pick();
+                    if (picked == null) {
+                        // cleared under the same lock as the last pick, so no released node is missed
+                        draining = false;
+                        return;
+                    }
+                }
+                // outside the lock since the executor may run the tasks on the calling thread
+                for (int v : picked) {
+                    try {
+                        executor.execute(() -> runNode(v));
+                    } catch (RuntimeException e) {
+                        // e.g., rejected by a shut down executor
+                        finish(v, System.nanoTime(), 0, e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Pick as many ready nodes as the concurrency bound allows, must hold the lock.
+         */
+        private int[] pick() {
+            int num = Math.min(maxConcurrency - running, readyTail - readyHead);
+            if (num <= 0) {
+                return null;
+            }
+            int[] picked = new int[num];
+            for (int i = 0; i < num; i++) {
+                int v = ready[readyHead++];
+                states[v] = RUNNING;
+                picked[i] = v;
+            }
+            running += num;
+            return picked;
+        }
+
+        private void runNode(int v) {
+            long begin = System.nanoTime();
+            Throwable failure = null;
+            try {
+                task.accept(vertices.get(v));
+            } catch (Throwable t) {
+                failure = t;
+            }
+            finish(v, begin, System.nanoTime() - begin, failure);
+        }
+
+        private void finish(int v, long begin, long duration, Throwable failure) {
+            boolean done;
+            synchronized (this) {
+                starts[v] = begin;
+                durations[v] = duration;
+                failures[v] = failure;
+                states[v] = failure == null ? SUCCEEDED : FAILED;
+                running--;
+                finished++;
+
+                int[] offsets = graph.offsets();
+                int[] targets = graph.targets();
+                if (failure == null) {
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (states[w] == PENDING && --pending[w] == 0) {
+                            ready[readyTail++] = w;
+                        }
+                    }
+                } else {
+                    cancelDependents(v, offsets, targets);
+                }
+                done = finished == vertices.size();
+            }
+
+            if (done) {
+                future.complete(report());
+            } else {
+                drain();
+            }
+        }
+
+        /**
+         * Cancel every pending node reachable from v, must hold the lock.
+         */
+        private void cancelDependents(int v, int[] offsets, int[] targets) {
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(v);
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int w = targets[e];
+                    if (states[w] == PENDING) {
+                        states[w] = CANCELLED;
+                        finished++;
+                        queue.add(w);
+                    }
+                }
+            }
+        }
+
+        private synchronized Report<T> report() {
+            Map<T, NodeResult> results = new HashMap<>(vertices.size() * 4 / 3 + 1);
+            for (int v = 0; v < vertices.size(); v++) {
+                results.put(vertices.get(v), new NodeResult(status(v), starts[v] - startNanos, durations[v], failures[v]));
+            }
+            return new Report<>(results, System.nanoTime() - startNanos);
+        }
+
+        private Status status(int v) {
+            if (states[v] == CANCELLED) {
+                return Status.CANCELLED;
+            }
+            return states[v] == SUCCEEDED ? Status.SUCCEEDED : Status.FAILED;
+        }
+    }
+
+    /**
+     * NodeResult is the outcome of the task of one node.
+     */
+    public static class NodeResult {
+        private final Status status;
+        private final long startNanos;
+        private final long durationNanos;
+        private final Throwable failure;
+
+        NodeResult(Status status, long startNanos, long durationNanos, Throwable failure) {
+            this.status = status;
+            this.startNanos = status == Status.CANCELLED ? 0 : startNanos;
+            this.durationNanos = durationNanos;
+            this.failure = failure;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return when the task started, in nanoseconds since the start of the run, 0 if cancelled.
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * @return how long the task ran, in nanoseconds, 0 if cancelled.
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return what the task threw, or null.
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+    }
+
+    /**
+     * Report is the outcome of a whole run.
+     *
+     * @param <T>
+     */
+    public static class Report<T> {
+        private final Map<T, NodeResult> results;
+        private final long elapsedNanos;
+
+        Report(Map<T, NodeResult> results, long elapsedNanos) {
+            this.results = results;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return true if every task succeeded.
+         */
+        public boolean isSuccessful() {
+            for (NodeResult r : results.values()) {
+                if (r.status != Status.SUCCEEDED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the result of a node, or null if the node is not in the graph.
+         */
+        public NodeResult get(T node) {
+            return results.get(node);
+        }
+
+        /**
+         * @return the results of all nodes.
+         */
+        public Map<T, NodeResult> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        /**
+         * @return the wall-clock time of the whole run, in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.csimplestring.algo.graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * EdgeListLoader builds a {@link CsrGraph} straight from an edge-list file, without any object per node or per edge,
+ * to feed {@link BridgeFinder}, {@link ParallelBridgeFinder} or {@link LayeredTopologySort} with graphs too large
+ * to be added edge by edge into {@link CuttingEdgeGraph} or {@link TopologySortList}.
+ * <p>
+ * 2 formats are supported:
+ * - binary: consecutive (int u, int v) pairs, 8 bytes per edge, in a given byte order;
+ * - text: one "u v" per line separated by spaces or tabs, anything after v (e.g., a weight) is ignored,
+ * blank lines and lines starting with '#' or '%' are skipped.
+ * Vertex ids are non-negative ints, the vertex number is the largest id + 1, edge i is the i-th edge of the file.
+ * <p>
+ * The file is cut in chunks of about 64MB (text chunks end on a line break), each mapped with a
+ * {@link MappedByteBuffer} and parsed by one fork-join task. The file is parsed 3 times, never copied on the heap:
+ * - scan: count the edges and find the largest vertex id of each chunk, so each chunk knows its first edge id;
+ * - count: count the degree of each vertex into an atomic array, prefix-summed into the offsets;
+ * - fill: drop every edge into the next free slot of its row, then sort each row by edge id.
+ * So the heap only ever holds the CSR arrays, plus 2 ints per vertex during the build, and the resulting graph is
+ * the same as {@link CsrGraph#directed} or {@link CsrGraph#undirected} would build from the same edge list.
+ */
+public class EdgeListLoader {
+
+    private static final long CHUNK_BYTES = 1L << 26;
+
+    private EdgeListLoader() {
+    }
+
+    /**
+     * Load a binary edge list on the common pool.
+     *
+     * @param file     the file of (int u, int v) pairs
+     * @param order    the byte order the ints were written in, e.g., big-endian for a DataOutputStream
+     * @param directed whether edge i goes from u to v, or connects u and v
+     * @return the graph
+     * @throws IOException if the file can not be read
+     */
+    public static CsrGraph readBinary(Path file, ByteOrder order, boolean directed) throws IOException {
+        return readBinary(file, order, directed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load a binary edge list on a given pool.
+     *
+     * @param file     the file of (int u, int v) pairs
+     * @param order    the byte order the ints were written in, e.g., big-endian for a DataOutputStream
+     * @param directed whether edge i goes from u to v, or connects u and v
+     * @param pool     the pool parsing the chunks
+     * @return the graph
+     * @throws IOException if the file can not be read
+     */
+    public static CsrGraph readBinary(Path file, ByteOrder order, boolean directed, ForkJoinPool pool)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % 8 != 0) {
+                throw new IllegalArgumentException("a binary edge list has 8 bytes per edge, got " + size + " bytes");
+            }
+            List<Chunk> chunks = new ArrayList<>();
+            for (long position = 0; position < size; position += CHUNK_BYTES) {
+                chunks.add(new Chunk(position, Math.min(CHUNK_BYTES, size - position)));
+            }
+            return load(channel, chunks, new BinaryParser(order), directed, pool);
+        }
+    }
+
+    /**
+     * Load a text edge list on the common pool.
+     *
+     * @param file     the file of "u v" lines, in ASCII or UTF-8
+     * @param directed whether edge i goes from u to v, or connects u and v
+     * @return the graph
+     * @throws IOException if the file can not be read
+     */
+    public static CsrGraph readText(Path file, boolean directed) throws IOException {
+        return readText(file, directed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load a text edge list on a given pool.
+     *
+     * @param file     the file of "u v" lines, in ASCII or UTF-8
+     * @param directed whether edge i goes from u to v, or connects u and v
+     * @param pool     the pool parsing the chunks
+     * @return the graph
+     * @throws IOException              if the file can not be read
+     * @throws IllegalArgumentException if a line is not an edge, the message gives its byte offset.
+     */
+    public static CsrGraph readText(Path file, boolean directed, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Chunk> chunks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = lineBoundary(channel, Math.min(start + CHUNK_BYTES, size), size);
+                chunks.add(new Chunk(start, end - start));
+                start = end;
+            }
+            return load(channel, chunks, new TextParser(), directed, pool);
+        }
+    }
+
+    /**
+     * @return the position right after the first line break at or after position - 1, or size if there is none.
+     */
+    private static long lineBoundary(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long p = position - 1;
+        while (p < size) {
+            buffer.clear();
+            int read = channel.read(buffer, p);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += read;
+        }
+        return size;
+    }
+
+    private static CsrGraph load(FileChannel channel, List<Chunk> chunks, Parser parser, boolean directed,
+                                 ForkJoinPool pool) throws IOException {
+        // scan
+        forEachChunk(channel, chunks, pool, (chunk, buffer) -> {
+            int[] max = {-1};
+            chunk.edgeNum = parser.parse(buffer, chunk.position, (edge, u, v) -> {
+                max[0] = Math.max(max[0], Math.max(u, v));
+            });
+            chunk.maxVertex = max[0];
+        });
+
+        long m = 0;
+        int maxVertex = -1;
+        for (Chunk chunk : chunks) {
+            chunk.firstEdge = m;
+            m += chunk.edgeNum;
+            maxVertex = Math.max(maxVertex, chunk.maxVertex);
+        }
+        long slots = directed ? m : 2 * m;
+        if (slots > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many edges for a CSR graph: " + m);
+        }
+        int n = maxVertex + 1;
+
+        // count
+        AtomicIntegerArray degrees = new AtomicIntegerArray(n);
+        forEachChunk(channel, chunks, pool, (chunk, buffer) -> parser.parse(buffer, chunk.position, (edge, u, v) -> {
+            degrees.getAndIncrement(u);
+            if (!directed) {
+                degrees.getAndIncrement(v);
+            }
+        }));
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degrees.get(v);
+        }
+
+        // fill, reusing the degree array as the row cursors
+        for (int v = 0; v < n; v++) {
+            degrees.set(v, offsets[v]);
+        }
+        int[] targets = new int[(int) slots];
+        int[] edgeIds = new int[(int) slots];
+        forEachChunk(channel, chunks, pool, (chunk, buffer) -> parser.parse(buffer, chunk.position, (edge, u, v) -> {
+            int id = (int) (chunk.firstEdge + edge);
+            int slot = degrees.getAndIncrement(u);
+            targets[slot] = v;
+            edgeIds[slot] = id;
+            if (!directed) {
+                slot = degrees.getAndIncrement(v);
+                targets[slot] = u;
+                edgeIds[slot] = id;
+            }
+        }));
+        pool.invoke(new SortRowsTask(offsets, targets, edgeIds, 0, n));
+
+        return new CsrGraph(n, (int) m, directed, offsets, targets, edgeIds);
+    }
+
+    private static void forEachChunk(FileChannel channel, List<Chunk> chunks, ForkJoinPool pool, ChunkBody body)
+            throws IOException {
+        try {
+            pool.invoke(new ChunkTask(channel, chunks, body, 0, chunks.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A byte range of the file, with what the scan found in it.
+     */
+    private static class Chunk {
+        final long position;
+        final long length;
+        int edgeNum;
+        int maxVertex;
+        long firstEdge;
+
+        Chunk(long position, long length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    private interface ChunkBody {
+        void accept(Chunk chunk, MappedByteBuffer buffer);
+    }
+
+    private interface EdgeVisitor {
+        /**
+         * @param edge the index of the edge in its chunk
+         */
+        void visit(int edge, int u, int v);
+    }
+
+    private interface Parser {
+        /**
+         * Visit every edge of a chunk.
+         *
+         * @param buffer   the mapped chunk
+         * @param position where the chunk starts in the file, for error messages
+         * @param visitor  called once per edge, in file order
+         * @return the number of edges
+         */
+        int parse(ByteBuffer buffer, long position, EdgeVisitor visitor);
+    }
+
+    private static class BinaryParser implements Parser {
+        private final ByteOrder order;
+
+        BinaryParser(ByteOrder order) {
+            this.order = order;
+        }
+
+        @Override
+        public int parse(ByteBuffer buffer, long position, EdgeVisitor visitor) {
+            buffer.order(order);
+            int edgeNum = buffer.limit() / 8;
+            for (int i = 0; i < edgeNum; i++) {
+                int u = buffer.getInt(i * 8);
+                int v = buffer.getInt(i * 8 + 4);
+                if (u < 0 || v < 0) {
+                    throw new IllegalArgumentException("negative vertex id at byte " + (position + i * 8L));
+                }
+                visitor.visit(i, u, v);
+            }
+            return edgeNum;
+        }
+    }
+
+    private static class TextParser implements Parser {
+
+        @Override
+        public int parse(ByteBuffer buffer, long position, EdgeVisitor visitor) {
+            int limit = buffer.limit();
+            int i = 0;
+            int edgeNum = 0;
+            while (i < limit) {
+                i = skipBlanks(buffer, i, limit);
+                if (i == limit) {
+                    break;
+                }
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    i++;
+                    continue;
+                }
+                if (b == '#' || b == '%') {
+                    i = nextLine(buffer, i, limit);
+                    continue;
+                }
+
+                int lineStart = i;
+                long u = 0;
+                int digits = 0;
+                for (; i < limit && isDigit(buffer.get(i)) && u <= Integer.MAX_VALUE; i++, digits++) {
+                    u = u * 10 + (buffer.get(i) - '0');
+                }
+                i = skipBlanks(buffer, i, limit);
+                long v = 0;
+                int vDigits = 0;
+                for (; i < limit && isDigit(buffer.get(i)) && v <= Integer.MAX_VALUE; i++, vDigits++) {
+                    v = v * 10 + (buffer.get(i) - '0');
+                }
+                if (digits == 0 || vDigits == 0 || u > Integer.MAX_VALUE || v > Integer.MAX_VALUE
+                        || (i < limit && !isSeparator(buffer.get(i)))) {
+                    throw new IllegalArgumentException("not an edge at byte " + (position + lineStart));
+                }
+                visitor.visit(edgeNum++, (int) u, (int) v);
+                i = nextLine(buffer, i, limit);
+            }
+            return edgeNum;
+        }
+
+        private static int skipBlanks(ByteBuffer buffer, int i, int limit) {
+            while (i < limit && (buffer.get(i) == ' ' || buffer.get(i) == '\t' || buffer.get(i) == '\r')) {
+                i++;
+            }
+            return i;
+        }
+
+        private static int nextLine(ByteBuffer buffer, int i, int limit) {
+            while (i < limit && buffer.get(i) != '\n') {
+                i++;
+            }
+            return i + 1;
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static boolean isSeparator(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+
+        private final FileChannel channel;
+        private final List<Chunk> chunks;
+        private final ChunkBody body;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, List<Chunk> chunks, ChunkBody body, int from, int to) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(channel, chunks, body, from, mid),
+                        new ChunkTask(channel, chunks, body, mid, to));
+                return;
+            }
+            if (from == to) {
+                return;
+            }
+            Chunk chunk = chunks.get(from);
+            try {
+                body.accept(chunk, channel.map(FileChannel.MapMode.READ_ONLY, chunk.position, chunk.length));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Sort the slots of each row by edge id, the fill pass having dropped them in whatever order the threads ran.
+     */
+    private static class SortRowsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int VERTICES_PER_TASK = 1 << 14;
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] edgeIds;
+        private final int from;
+        private final int to;
+
+        SortRowsTask(int[] offsets, int[] targets, int[] edgeIds, int from, int to) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.edgeIds = edgeIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > VERTICES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SortRowsTask(offsets, targets, edgeIds, from, mid),
+                        new SortRowsTask(offsets, targets, edgeIds, mid, to));
+                return;
+            }
+            long[] scratch = new long[16];
+            for (int v = from; v < to; v++) {
+                int lo = offsets[v];
+                int hi = offsets[v + 1];
+                if (isSorted(lo, hi)) {
+                    continue;
+                }
+                if (scratch.length < hi - lo) {
+                    scratch = new long[hi - lo];
+                }
+                // both are non-negative, so the packed longs sort by edge id then target
+                for (int i = lo; i < hi; i++) {
+                    scratch[i - lo] = (long) edgeIds[i] << 32 | targets[i];
+                }
+                Arrays.sort(scratch, 0, hi - lo);
+                for (int i = lo; i < hi; i++) {
+                    edgeIds[i] = (int) (scratch[i - lo] >>> 32);
+                    targets[i] = (int) scratch[i - lo];
+                }
+            }
+        }
+
+        private boolean isSorted(int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                if (edgeIds[i - 1] > edgeIds[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
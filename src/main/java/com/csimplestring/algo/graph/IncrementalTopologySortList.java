@@ -0,0 +1,243 @@
+package com.csimplestring.algo.graph;
+
+import java.util.*;
+
+/**
+ * IncrementalTopologySortList keeps a topological order up to date while dependencies are added one by one, and
+ * rejects a dependency creating a cycle as soon as it is added, whereas {@link TopologySortList} only finds out when
+ * sorting and sorts everything again each time.
+ * <p>
+ * It implements the dynamic topological order algorithm of Pearce and Kelly. Adding A -> B is free when A is already
+ * before B. Otherwise only the affected region, the positions between B and A, is examined:
+ * - a forward DFS from B collects the elements reachable from B placed before A; reaching A means a cycle;
+ * - a backward DFS from A collects the elements reaching A placed after B;
+ * - the positions of both sets are pooled and reassigned, the backward set first, each set keeping its relative order.
+ * Everything outside the region keeps its position.
+ *
+ * @param <T> the node type in a graph.
+ */
+public class IncrementalTopologySortList<T> {
+
+    private static final int[] NO_EDGES = new int[0];
+
+    private final Map<T, Integer> ids = new HashMap<>();
+    private final List<T> values = new ArrayList<>();
+
+    /**
+     * id -> position in the order, and position -> id.
+     */
+    private int[] positions = new int[16];
+    private int[] order = new int[16];
+
+    /**
+     * adjacency lists, grown on demand: out[id][0..outSizes[id]) and in[id][0..inSizes[id]).
+     */
+    private int[][] out = new int[16][];
+    private int[][] in = new int[16][];
+    private int[] outSizes = new int[16];
+    private int[] inSizes = new int[16];
+
+    /**
+     * DFS scratch space: visited marks by epoch, the parent of each visited element, and the stack.
+     */
+    private int[] marks = new int[16];
+    private int[] parents = new int[16];
+    private int[] stack = new int[16];
+    private int epoch = 0;
+
+    public IncrementalTopologySortList() {
+    }
+
+    /**
+     * Add the dependent pair into list. The order matters.
+     * e.g., A -> B, meaning B depends on A.
+     *
+     * @param from the flow-in node, A
+     * @param to   the flow-out node, B
+     * @throws CyclicDependencyException if B already reaches A, the list is left unchanged.
+     */
+    public void add(T from, T to) {
+        // checked before interning, so a rejected self-loop does not add its element
+        if (Objects.equals(from, to)) {
+            throw new CyclicDependencyException(Arrays.asList(from, to));
+        }
+        // a new element has no edge yet, so only a pair of existing elements can close a cycle
+        int x = intern(from);
+        int y = intern(to);
+        for (int i = 0; i < outSizes[x]; i++) {
+            if (out[x][i] == y) {
+                return;
+            }
+        }
+
+        int lower = positions[y];
+        int upper = positions[x];
+        if (lower < upper) {
+            reorder(x, y, lower, upper);
+        }
+
+        out[x] = append(out[x], outSizes[x]++, y);
+        in[y] = append(in[y], inSizes[y]++, x);
+    }
+
+    /**
+     * Add an element without dependency, nothing happens if it already exists.
+     *
+     * @param t the element
+     */
+    public void add(T t) {
+        intern(t);
+    }
+
+    /**
+     * Get the current topological order, in O(V) time.
+     *
+     * @return the topology sorted list, never empty if there is any element since cycles are rejected when added.
+     */
+    public List<T> sort() {
+        List<T> res = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            res.add(values.get(order[i]));
+        }
+        return res;
+    }
+
+    /**
+     * Get the position of an element in the current order, in O(1) time.
+     *
+     * @param t the element
+     * @return the position, or -1 if the element does not exist.
+     */
+    public int indexOf(T t) {
+        Integer id = ids.get(t);
+        return id == null ? -1 : positions[id];
+    }
+
+    /**
+     * @return the number of elements.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Fix the order so x comes before y, knowing that y is currently at lower and x at upper.
+     */
+    private void reorder(int x, int y, int lower, int upper) {
+        int[] forward = collect(y, upper, true, x);
+        int[] backward = collect(x, lower, false, -1);
+
+        Integer[] sorted = new Integer[forward.length + backward.length];
+        int k = 0;
+        for (int id : backward) {
+            sorted[k++] = id;
+        }
+        for (int id : forward) {
+            sorted[k++] = id;
+        }
+        Comparator<Integer> byPosition = Comparator.comparingInt(id -> positions[id]);
+        Arrays.sort(sorted, 0, backward.length, byPosition);
+        Arrays.sort(sorted, backward.length, sorted.length, byPosition);
+
+        int[] pool = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            pool[i] = positions[sorted[i]];
+        }
+        Arrays.sort(pool);
+        for (int i = 0; i < sorted.length; i++) {
+            positions[sorted[i]] = pool[i];
+            order[pool[i]] = sorted[i];
+        }
+    }
+
+    /**
+     * Iterative DFS inside the affected region.
+     *
+     * @param start   where the DFS starts
+     * @param bound   forward: only visit positions below it; backward: only visit positions above it
+     * @param forward follow out-going edges if true, in-coming edges otherwise
+     * @param target  forward only, the element whose discovery means a cycle
+     * @return the visited elements
+     */
+    private int[] collect(int start, int bound, boolean forward, int target) {
+        epoch++;
+        int visitedNum = 0;
+        int[] visited = new int[8];
+        int top = 0;
+        stack[top++] = start;
+        marks[start] = epoch;
+        parents[start] = -1;
+
+        while (top > 0) {
+            int v = stack[--top];
+            visited = append(visited, visitedNum++, v);
+
+            int[] edges = forward ? out[v] : in[v];
+            int size = forward ? outSizes[v] : inSizes[v];
+            for (int i = 0; i < size; i++) {
+                int w = edges[i];
+                if (w == target) {
+                    parents[w] = v;
+                    throw new CyclicDependencyException(cycle(target, start));
+                }
+                boolean inRegion = forward ? positions[w] < bound : positions[w] > bound;
+                if (inRegion && marks[w] != epoch) {
+                    marks[w] = epoch;
+                    parents[w] = v;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return Arrays.copyOf(visited, visitedNum);
+    }
+
+    /**
+     * Rebuild the cycle x -> y -> ... -> x from the parents of the forward DFS which started at y and reached x.
+     */
+    private List<T> cycle(int x, int y) {
+        List<T> path = new ArrayList<>();
+        for (int v = x; v != -1; v = v == y ? -1 : parents[v]) {
+            path.add(values.get(v));
+        }
+        path.add(values.get(x));
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int intern(T t) {
+        Integer id = ids.get(t);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = values.size();
+        if (newId == positions.length) {
+            int capacity = newId * 2;
+            positions = Arrays.copyOf(positions, capacity);
+            order = Arrays.copyOf(order, capacity);
+            out = Arrays.copyOf(out, capacity);
+            in = Arrays.copyOf(in, capacity);
+            outSizes = Arrays.copyOf(outSizes, capacity);
+            inSizes = Arrays.copyOf(inSizes, capacity);
+            marks = Arrays.copyOf(marks, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            stack = Arrays.copyOf(stack, capacity);
+        }
+        values.add(t);
+        ids.put(t, newId);
+        // a new element has no dependency yet, the end of the order is as good as anywhere
+        positions[newId] = newId;
+        order[newId] = newId;
+        out[newId] = NO_EDGES;
+        in[newId] = NO_EDGES;
+        return newId;
+    }
+
+    private static int[] append(int[] arr, int size, int value) {
+        if (size == arr.length) {
+            arr = Arrays.copyOf(arr, Math.max(4, size * 2));
+        }
+        arr[size] = value;
+        return arr;
+    }
+}
@@ -0,0 +1,185 @@
+package com.csimplestring.algo.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * LayeredTopologySort sorts a directed {@link CsrGraph} level by level (Kahn's algorithm, one frontier at a time):
+ * level 0 holds the vertices without dependency, level k + 1 holds the vertices whose last dependency is in level k.
+ * All the vertices of a level are independent of each other, so a level is also a batch of work which can run in
+ * parallel.
+ * <p>
+ * The in-degree decrements of a level are processed in parallel on fork-join: the in-degrees live in an
+ * {@link AtomicIntegerArray}, and the thread which brings a vertex down to 0 appends it to the next level through an
+ * atomic cursor. Each level is finally sorted by vertex id, so the result does not depend on the thread scheduling.
+ * Small levels are processed on the calling thread, where forking would cost more than it saves.
+ */
+public class LayeredTopologySort {
+
+    /**
+     * edges relaxed by one fork-join task.
+     */
+    private static final int EDGES_PER_TASK = 1 << 13;
+
+    private LayeredTopologySort() {
+    }
+
+    /**
+     * Sort a directed graph on the common pool.
+     *
+     * @param graph the directed graph
+     * @return the levels
+     */
+    public static Levels sort(CsrGraph graph) {
+        return sort(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sort a directed graph on a given pool.
+     *
+     * @param graph the directed graph
+     * @param pool  the pool processing the large levels
+     * @return the levels, with {@link Levels#isAcyclic()} false if the graph has a cycle.
+     */
+    public static Levels sort(CsrGraph graph, ForkJoinPool pool) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("topology sort requires a directed graph");
+        }
+        int n = graph.vertexNum();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        int[] degrees = new int[n];
+        for (int target : targets) {
+            degrees[target]++;
+        }
+        AtomicIntegerArray inDegrees = new AtomicIntegerArray(degrees);
+
+        int[] order = new int[n];
+        AtomicInteger cursor = new AtomicInteger();
+        for (int v = 0; v < n; v++) {
+            if (degrees[v] == 0) {
+                order[cursor.getAndIncrement()] = v;
+            }
+        }
+
+        int[] levelOffsets = new int[n + 1];
+        int levelNum = 0;
+        int start = 0;
+        int end = cursor.get();
+        while (start < end) {
+            levelOffsets[levelNum++] = start;
+
+            // a level is sorted by id, so this is an upper bound of its out-going edges
+            int edges = offsets[order[end - 1] + 1] - offsets[order[start]];
+            Relax task = new Relax(offsets, targets, inDegrees, order, cursor, start, end);
+            if (end - start > 1 && edges > EDGES_PER_TASK) {
+                pool.invoke(task);
+            } else {
+                task.compute();
+            }
+
+            start = end;
+            end = cursor.get();
+            Arrays.sort(order, start, end);
+        }
+        levelOffsets[levelNum] = end;
+
+        return new Levels(Arrays.copyOf(order, end), Arrays.copyOf(levelOffsets, levelNum + 1), n);
+    }
+
+    private static class Relax extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final AtomicIntegerArray inDegrees;
+        private final int[] order;
+        private final AtomicInteger cursor;
+        private final int from;
+        private final int to;
+
+        Relax(int[] offsets, int[] targets, AtomicIntegerArray inDegrees, int[] order, AtomicInteger cursor,
+              int from, int to) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.inDegrees = inDegrees;
+            this.order = order;
+            this.cursor = cursor;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int edges = 0;
+            for (int i = from; i < to; i++) {
+                edges += offsets[order[i] + 1] - offsets[order[i]];
+                if (edges > EDGES_PER_TASK && to - from > 1) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new Relax(offsets, targets, inDegrees, order, cursor, from, mid),
+                            new Relax(offsets, targets, inDegrees, order, cursor, mid, to));
+                    return;
+                }
+            }
+
+            for (int i = from; i < to; i++) {
+                int v = order[i];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (inDegrees.decrementAndGet(w) == 0) {
+                        order[cursor.getAndIncrement()] = w;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Levels is the result of a layered topology sort: level k is order[levelOffsets[k]] .. order[levelOffsets[k + 1] - 1],
+     * sorted by vertex id.
+     */
+    public static class Levels {
+        private final int[] order;
+        private final int[] levelOffsets;
+        private final int vertexNum;
+
+        Levels(int[] order, int[] levelOffsets, int vertexNum) {
+            this.order = order;
+            this.levelOffsets = levelOffsets;
+            this.vertexNum = vertexNum;
+        }
+
+        /**
+         * @return false if the graph has a cycle, then only the vertices which do not depend on a cycle are sorted.
+         */
+        public boolean isAcyclic() {
+            return order.length == vertexNum;
+        }
+
+        /**
+         * @return the number of levels.
+         */
+        public int levelNum() {
+            return levelOffsets.length - 1;
+        }
+
+        /**
+         * @return the sorted vertices, level by level.
+         */
+        public int[] order() {
+            return order;
+        }
+
+        /**
+         * @return where each level starts in order(), of length levelNum() + 1.
+         */
+        public int[] levelOffsets() {
+            return levelOffsets;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.csimplestring.algo.graph;
+
+import com.csimplestring.algo.unionfind.ConcurrentIntUnionFindSet;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ParallelBridgeFinder finds the bridges of an undirected {@link CsrGraph} on all cores, following the idea of
+ * Tarjan-Vishkin: a DFS is inherently sequential, but bridges can be found from any spanning forest.
+ * <p>
+ * 1. spanning forest: the edges are unioned in parallel in a {@link ConcurrentIntUnionFindSet},
+ * the edges whose union succeeded form a spanning forest;
+ * 2. the forest is rooted with a level-synchronous BFS, each level being expanded in parallel;
+ * 3. subtree sizes are summed bottom-up and preorder numbers are handed out top-down, level by level in parallel;
+ * 4. for each vertex, low/high is the min/max preorder number reachable from its subtree through one non-tree edge,
+ * computed locally in parallel then aggregated bottom-up;
+ * 5. the tree edge into v is a bridge iff nothing in the subtree of v reaches outside of it:
+ * low[v] &gt;= pre[v] and high[v] &lt; pre[v] + size[v].
+ * <p>
+ * The bridge set of a graph is unique, so the result is exactly the one of {@link BridgeFinder}, whichever spanning
+ * forest the threads happened to build. A parallel edge of a tree edge is a non-tree edge, so it is never a bridge.
+ * Very deep forests (long paths) have many tiny levels, which are processed on the calling thread.
+ */
+public class ParallelBridgeFinder {
+
+    /**
+     * vertices handled by one fork-join task.
+     */
+    private static final int GRAIN = 1 << 12;
+
+    private final CsrGraph graph;
+    private final ForkJoinPool pool;
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] edgeIds;
+
+    private boolean[] tree;
+    private int[] treeOffsets;
+    private int[] treeTargets;
+    private int[] treeEdgeIds;
+
+    /**
+     * BFS order of the forest, level by level.
+     */
+    private int[] order;
+    private int[] levelOffsets;
+    private int levelNum;
+
+    private ConcurrentIntUnionFindSet set;
+    private int[] parentEdge;
+    private int[] size;
+    private int[] pre;
+    private int[] low;
+    private int[] high;
+
+    private ParallelBridgeFinder(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.n = graph.vertexNum();
+        this.offsets = graph.offsets();
+        this.targets = graph.targets();
+        this.edgeIds = graph.edgeIds();
+    }
+
+    /**
+     * Find the bridges on the common pool.
+     *
+     * @param graph the undirected graph
+     * @return the ids of the bridges, in ascending order
+     */
+    public static int[] findBridges(CsrGraph graph) {
+        return findBridges(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Find the bridges on a given pool.
+     *
+     * @param graph the undirected graph
+     * @param pool  the pool running the parallel steps
+     * @return the ids of the bridges, in ascending order, the same as {@link BridgeFinder.Result#bridges()}.
+     */
+    public static int[] findBridges(CsrGraph graph, ForkJoinPool pool) {
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("bridges are defined on an undirected graph");
+        }
+        ParallelBridgeFinder finder = new ParallelBridgeFinder(graph, pool);
+        finder.spanningForest();
+        finder.root();
+        finder.numberSubtrees();
+        finder.lowHigh();
+        return finder.collect();
+    }
+
+    /**
+     * Step 1, union every edge once (from its smaller end) and keep those which merged two trees.
+     */
+    private void spanningForest() {
+        set = new ConcurrentIntUnionFindSet(n);
+        tree = new boolean[graph.edgeNum()];
+        parallelFor(0, n, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    if (u < targets[e] && set.union(u, targets[e])) {
+                        tree[edgeIds[e]] = true;
+                    }
+                }
+            }
+        });
+
+        // the rows of the forest are the rows of the graph filtered on tree edges, so each row is built by one task
+        treeOffsets = new int[n + 1];
+        parallelFor(0, n, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                int degree = 0;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    if (tree[edgeIds[e]]) {
+                        degree++;
+                    }
+                }
+                treeOffsets[u + 1] = degree;
+            }
+        });
+        for (int u = 0; u < n; u++) {
+            treeOffsets[u + 1] += treeOffsets[u];
+        }
+        treeTargets = new int[treeOffsets[n]];
+        treeEdgeIds = new int[treeOffsets[n]];
+        parallelFor(0, n, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                int slot = treeOffsets[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    if (tree[edgeIds[e]]) {
+                        treeTargets[slot] = targets[e];
+                        treeEdgeIds[slot++] = edgeIds[e];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Step 2, BFS from the union-find root of each tree, all trees at once. In a tree a vertex is only discovered
+     * by its parent, so no vertex is claimed twice, only the next level cursor is shared.
+     */
+    private void root() {
+        order = new int[n];
+        levelOffsets = new int[n + 1];
+        parentEdge = new int[n];
+
+        AtomicInteger cursor = new AtomicInteger();
+        for (int v = 0; v < n; v++) {
+            if (set.find(v) == v) {
+                order[cursor.getAndIncrement()] = v;
+                parentEdge[v] = -1;
+            }
+        }
+
+        levelNum = 0;
+        int start = 0;
+        int end = cursor.get();
+        while (start < end) {
+            levelOffsets[levelNum++] = start;
+            parallelFor(start, end, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int v = order[i];
+                    for (int e = treeOffsets[v]; e < treeOffsets[v + 1]; e++) {
+                        if (treeEdgeIds[e] != parentEdge[v]) {
+                            int w = treeTargets[e];
+                            parentEdge[w] = treeEdgeIds[e];
+                            order[cursor.getAndIncrement()] = w;
+                        }
+                    }
+                }
+            });
+            start = end;
+            end = cursor.get();
+        }
+        levelOffsets[levelNum] = end;
+    }
+
+    /**
+     * Step 3, subtree sizes bottom-up, then preorder numbers top-down.
+     */
+    private void numberSubtrees() {
+        size = new int[n];
+        for (int l = levelNum - 1; l >= 0; l--) {
+            parallelFor(levelOffsets[l], levelOffsets[l + 1], (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int v = order[i];
+                    int s = 1;
+                    for (int e = treeOffsets[v]; e < treeOffsets[v + 1]; e++) {
+                        if (treeEdgeIds[e] != parentEdge[v]) {
+                            s += size[treeTargets[e]];
+                        }
+                    }
+                    size[v] = s;
+                }
+            });
+        }
+
+        pre = new int[n];
+        int next = 0;
+        for (int i = levelOffsets[0]; i < levelOffsets[levelNum > 0 ? 1 : 0]; i++) {
+            pre[order[i]] = next;
+            next += size[order[i]];
+        }
+        for (int l = 0; l < levelNum; l++) {
+            parallelFor(levelOffsets[l], levelOffsets[l + 1], (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int v = order[i];
+                    int p = pre[v] + 1;
+                    for (int e = treeOffsets[v]; e < treeOffsets[v + 1]; e++) {
+                        if (treeEdgeIds[e] != parentEdge[v]) {
+                            pre[treeTargets[e]] = p;
+                            p += size[treeTargets[e]];
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Step 4, local low/high over the non-tree edges, then aggregated bottom-up.
+     */
+    private void lowHigh() {
+        low = new int[n];
+        high = new int[n];
+        parallelFor(0, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int lo = pre[v];
+                int hi = pre[v];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (!tree[edgeIds[e]]) {
+                        lo = Math.min(lo, pre[targets[e]]);
+                        hi = Math.max(hi, pre[targets[e]]);
+                    }
+                }
+                low[v] = lo;
+                high[v] = hi;
+            }
+        });
+
+        for (int l = levelNum - 1; l >= 0; l--) {
+            parallelFor(levelOffsets[l], levelOffsets[l + 1], (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int v = order[i];
+                    for (int e = treeOffsets[v]; e < treeOffsets[v + 1]; e++) {
+                        if (treeEdgeIds[e] != parentEdge[v]) {
+                            low[v] = Math.min(low[v], low[treeTargets[e]]);
+                            high[v] = Math.max(high[v], high[treeTargets[e]]);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Step 5, test the tree edge into each non-root vertex.
+     */
+    private int[] collect() {
+        boolean[] bridges = new boolean[graph.edgeNum()];
+        parallelFor(0, n, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (parentEdge[v] >= 0 && low[v] >= pre[v] && high[v] < pre[v] + size[v]) {
+                    bridges[parentEdge[v]] = true;
+                }
+            }
+        });
+
+        int num = 0;
+        for (boolean b : bridges) {
+            if (b) {
+                num++;
+            }
+        }
+        int[] res = new int[num];
+        int k = 0;
+        for (int e = 0; e < bridges.length; e++) {
+            if (bridges[e]) {
+                res[k++] = e;
+            }
+        }
+        return res;
+    }
+
+    private void parallelFor(int from, int to, RangeBody body) {
+        if (to - from <= GRAIN) {
+            body.run(from, to);
+        } else {
+            pool.invoke(new RangeTask(body, from, to));
+        }
+    }
+
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+
+        private final RangeBody body;
+        private final int from;
+        private final int to;
+
+        RangeTask(RangeBody body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(body, from, mid), new RangeTask(body, mid, to));
+        }
+    }
+}
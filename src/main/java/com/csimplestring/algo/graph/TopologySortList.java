@@ -1,6 +1,7 @@
 package com.csimplestring.algo.graph;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * TopologySortList receives the dependency-item and can sort elements in topological way.
@@ -80,6 +81,76 @@ public class TopologySortList<T> {
         return res;
     }
 
+    /**
+     * Topology sort elements level by level, on the common pool. See {@link #sortLevels(ForkJoinPool)}.
+     *
+     * @return the levels, return empty list if topology sort can not succeed.
+     */
+    public List<List<T>> sortLevels() {
+        return sortLevels(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Topology sort elements level by level: the elements of level 0 have no dependency, and the elements of level k + 1
+     * only depend on elements of previous levels, at least one of them in level k. Elements of the same level are
+     * independent of each other.
+     * <p>
+     * The graph is frozen into int arrays first (see {@link CsrGraph}), so the sort itself does no hashing and no boxing,
+     * and the in-degree decrements of large levels run in parallel (see {@link LayeredTopologySort}).
+     *
+     * @param pool the pool processing the large levels
+     * @return the levels, return empty list if topology sort can not succeed.
+     */
+    public List<List<T>> sortLevels(ForkJoinPool pool) {
+        List<T> vertices = new ArrayList<>(nodes.size());
+        LayeredTopologySort.Levels levels = LayeredTopologySort.sort(freeze(vertices), pool);
+        if (!levels.isAcyclic()) {
+            return Collections.emptyList();
+        }
+
+        int[] order = levels.order();
+        int[] levelOffsets = levels.levelOffsets();
+        List<List<T>> res = new ArrayList<>(levels.levelNum());
+        for (int l = 0; l < levels.levelNum(); l++) {
+            List<T> level = new ArrayList<>(levelOffsets[l + 1] - levelOffsets[l]);
+            for (int i = levelOffsets[l]; i < levelOffsets[l + 1]; i++) {
+                level.add(vertices.get(order[i]));
+            }
+            res.add(level);
+        }
+        return res;
+    }
+
+    /**
+     * Freeze the graph into a directed {@link CsrGraph}.
+     *
+     * @param vertices receives the elements, the element of vertex id i is vertices.get(i).
+     * @return the graph
+     */
+    CsrGraph freeze(List<T> vertices) {
+        Map<T, Integer> ids = new HashMap<>(nodes.size() * 4 / 3 + 1);
+        for (T t : nodes.keySet()) {
+            ids.put(t, vertices.size());
+            vertices.add(t);
+        }
+
+        int m = 0;
+        for (Set<T> targets : out.values()) {
+            m += targets.size();
+        }
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        int e = 0;
+        for (Map.Entry<T, Set<T>> entry : out.entrySet()) {
+            int from = ids.get(entry.getKey());
+            for (T to : entry.getValue()) {
+                src[e] = from;
+                dst[e++] = ids.get(to);
+            }
+        }
+        return CsrGraph.directed(vertices.size(), src, dst);
+    }
+
     /**
      * Node represents a node in a graph, with inDegree value.
      *
@@ -0,0 +1,357 @@
+package com.csimplestring.algo.heap;
+
+import java.util.*;
+
+/**
+ * Approximate Top Frequency List, a bounded-memory alternative of {@link TopFrequentList} for streams
+ * with too many distinct elements to count them all exactly.
+ * <p>
+ * It implements the Space-Saving algorithm: at most {@code capacity} elements are monitored at any time, each with a
+ * count and an error. When an unmonitored element arrives and the summary is full, the monitored element with the
+ * smallest count is evicted and the newcomer inherits that count as its error. An indexed min heap keeps the smallest
+ * count at hand, so one add costs O(log(capacity)) and the memory never grows beyond capacity entries.
+ * <p>
+ * Error bounds, with N the total weight added so far (including merged summaries):
+ * - every estimated count overestimates: count - error <= true frequency <= count;
+ * - the error of any estimate is at most N / capacity;
+ * - any element whose true frequency is greater than N / capacity is guaranteed to be monitored.
+ * <p>
+ * Summaries built on different shards can be combined with {@link #merge(ApproximateTopFrequentList)},
+ * the merged summary keeps the same guarantees over the union of both streams.
+ *
+ * @param <T>
+ * @see https://www.cs.ucsb.edu/sites/default/files/documents/2005-23.pdf
+ */
+public class ApproximateTopFrequentList<T> {
+
+    private final int capacity;
+
+    /**
+     * slot -> monitored element, count and error.
+     */
+    private final Object[] elements;
+    private final long[] counts;
+    private final long[] errors;
+
+    /**
+     * min heap of slots ordered by count, and its inverse index: slot -> position in heap.
+     */
+    private final int[] heap;
+    private final int[] position;
+
+    private final Map<T, Integer> slots;
+    private int size = 0;
+
+    /**
+     * the upper bound of the frequency of any element which is not monitored.
+     */
+    private long floor = 0;
+    private long total = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity how many elements can be monitored at most, the memory budget of the summary.
+     */
+    public ApproximateTopFrequentList(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.elements = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.slots = new HashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * Create a summary whose error is at most epsilon * N.
+     *
+     * @param epsilon the relative error, in (0, 1).
+     * @param <T>
+     * @return a summary with capacity ceil(1 / epsilon)
+     */
+    public static <T> ApproximateTopFrequentList<T> withErrorRate(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("epsilon must be in (0, 1): " + epsilon);
+        }
+        return new ApproximateTopFrequentList<>((int) Math.ceil(1 / epsilon));
+    }
+
+    /**
+     * Add element
+     *
+     * @param t element must support hashCode() and must not be NULL
+     */
+    public void add(T t) {
+        add(t, 1);
+    }
+
+    /**
+     * Add element with a weight, as if it was added weight times.
+     *
+     * @param t      element must support hashCode() and must not be NULL
+     * @param weight must be positive
+     */
+    public void add(T t, long weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be positive: " + weight);
+        }
+        total += weight;
+
+        Integer slot = slots.get(t);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(position[slot]);
+            return;
+        }
+
+        if (size < capacity) {
+            int s = size++;
+            elements[s] = t;
+            counts[s] = floor + weight;
+            errors[s] = floor;
+            heap[s] = s;
+            position[s] = s;
+            slots.put(t, s);
+            siftUp(s);
+            return;
+        }
+
+        // evict the element with the minimum count, the newcomer may have occurred up to that many times unseen
+        int s = heap[0];
+        slots.remove(elementAt(s));
+        floor = Math.max(floor, counts[s]);
+        elements[s] = t;
+        counts[s] = floor + weight;
+        errors[s] = floor;
+        slots.put(t, s);
+        siftDown(0);
+    }
+
+    /**
+     * Add all elements in l
+     *
+     * @param l the list which must not contain NULL element.
+     */
+    public void addAll(List<T> l) {
+        l.forEach(this::add);
+    }
+
+    /**
+     * Merge another summary into this one, e.g., to combine the summaries of several shards.
+     * The other summary is left untouched, and its capacity may differ.
+     *
+     * @param other the summary to be merged
+     */
+    public void merge(ApproximateTopFrequentList<T> other) {
+        Map<T, long[]> merged = new HashMap<>((size + other.size) * 4 / 3 + 1);
+        for (int s = 0; s < size; s++) {
+            merged.put(elementAt(s), new long[]{counts[s], errors[s]});
+        }
+        for (int s = 0; s < other.size; s++) {
+            long[] e = merged.get(other.elementAt(s));
+            if (e == null) {
+                // not monitored here, so it may have occurred up to floor times in this stream
+                merged.put(other.elementAt(s), new long[]{other.counts[s] + floor, other.errors[s] + floor});
+            } else {
+                e[0] += other.counts[s];
+                e[1] += other.errors[s];
+            }
+        }
+        for (int s = 0; s < size; s++) {
+            if (!other.slots.containsKey(elementAt(s))) {
+                long[] e = merged.get(elementAt(s));
+                e[0] += other.floor;
+                e[1] += other.floor;
+            }
+        }
+
+        List<Map.Entry<T, long[]>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue()[0], e1.getValue()[0]));
+
+        long newFloor = floor + other.floor;
+        if (entries.size() > capacity) {
+            newFloor = Math.max(newFloor, entries.get(capacity).getValue()[0]);
+        }
+
+        slots.clear();
+        size = Math.min(capacity, entries.size());
+        for (int s = 0; s < size; s++) {
+            Map.Entry<T, long[]> e = entries.get(s);
+            elements[s] = e.getKey();
+            counts[s] = e.getValue()[0];
+            errors[s] = e.getValue()[1];
+            slots.put(e.getKey(), s);
+        }
+        for (int s = size; s < capacity; s++) {
+            elements[s] = null;
+        }
+        // sorted in descending order, so filling the heap backwards yields a valid min heap
+        for (int i = 0; i < size; i++) {
+            heap[i] = size - 1 - i;
+            position[size - 1 - i] = i;
+        }
+        floor = newFloor;
+        total += other.total;
+    }
+
+    /**
+     * Estimate the frequency of an element.
+     *
+     * @param t the element
+     * @return the estimate, for an unmonitored element it is [0, upper bound of unmonitored elements].
+     */
+    public Estimate<T> estimate(T t) {
+        Integer slot = slots.get(t);
+        if (slot == null) {
+            return new Estimate<>(t, floor, floor);
+        }
+        return new Estimate<>(t, counts[slot], errors[slot]);
+    }
+
+    /**
+     * Get the top K frequent elements with their estimated counts, in O(capacity * log(K)) time.
+     *
+     * @param topK     the top k frequency threshold
+     * @param resolver the resolver to solve in case of tie, the frequency passed to it is capped at Integer.MAX_VALUE.
+     * @return the top K frequent elements, from the most frequent to the least frequent.
+     */
+    public List<Estimate<T>> findTopK(int topK, TopFrequentList.TieResolver<T> resolver) {
+        if (topK <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Math.min(topK, Math.max(size, 1)), (s1, s2) -> {
+            if (counts[s1] == counts[s2]) {
+                return resolver.resolve((int) Math.min(counts[s1], Integer.MAX_VALUE), elementAt(s1), elementAt(s2));
+            }
+            return Long.compare(counts[s1], counts[s2]);
+        });
+
+        for (int s = 0; s < size; s++) {
+            queue.add(s);
+            if (queue.size() > topK) {
+                queue.poll();
+            }
+        }
+
+        List<Estimate<T>> res = new ArrayList<>(queue.size());
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            res.add(new Estimate<>(elementAt(s), counts[s], errors[s]));
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /**
+     * @return the total weight added so far, including merged summaries.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the max number of monitored elements.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the upper bound of the frequency of any unmonitored element, which is at most total / capacity.
+     */
+    public long getMaxError() {
+        return floor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int slot) {
+        return (T) elements[slot];
+    }
+
+    private void siftUp(int i) {
+        int slot = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            move(heap[parent], i);
+            i = parent;
+        }
+        move(slot, i);
+    }
+
+    private void siftDown(int i) {
+        int slot = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[slot] <= counts[heap[child]]) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(slot, i);
+    }
+
+    private void move(int slot, int i) {
+        heap[i] = slot;
+        position[slot] = i;
+    }
+
+    /**
+     * Estimate is an element with its estimated count, the true frequency is in [count - error, count].
+     *
+     * @param <S>
+     */
+    public static class Estimate<S> {
+        private final S element;
+        private final long count;
+        private final long error;
+
+        public Estimate(S element, long count, long error) {
+            this.element = element;
+            this.count = count;
+            this.error = error;
+        }
+
+        public S getElement() {
+            return element;
+        }
+
+        /**
+         * @return the estimated count, never less than the true frequency.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the max overestimation of the count.
+         */
+        public long getError() {
+            return error;
+        }
+
+        /**
+         * @return the guaranteed minimum of the true frequency.
+         */
+        public long getLowerBound() {
+            return count - error;
+        }
+
+        @Override
+        public String toString() {
+            return element + "=" + count + "(+-" + error + ")";
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.csimplestring.algo.heap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent Top Frequency List, the thread-safe sibling of {@link TopFrequentList}.
+ * Many threads can call {@link #add(Object)} and {@link #addAll(List)} at the same time without any external lock.
+ * <p>
+ * The counters are striped on two levels:
+ * - the element-to-counter map is a {@link ConcurrentHashMap}, so threads adding different elements never block each other;
+ * - each element owns a {@link LongAdder}, which spreads the increments of a hot element over several cells,
+ * so threads hammering the same element do not fight over a single memory word.
+ * Once an element has been seen, counting it again is a lock-free map read plus an adder increment, nothing is boxed.
+ * <p>
+ * {@link #findTopK(int, TopFrequentList.TieResolver)} never stops the writers, it ranks a weakly consistent snapshot:
+ * every count is exact at the moment it is read, but two counts may be read at slightly different moments.
+ *
+ * @param <T>
+ */
+public class ConcurrentTopFrequentList<T> {
+
+    private final ConcurrentHashMap<T, LongAdder> counter;
+
+    public ConcurrentTopFrequentList() {
+        this(16);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param initialCapacity the expected number of distinct elements, used to avoid resizing the internal map.
+     */
+    public ConcurrentTopFrequentList(int initialCapacity) {
+        this.counter = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    /**
+     * Add element, thread-safe.
+     *
+     * @param t element must support hashCode() and must not be NULL
+     */
+    public void add(T t) {
+        // the plain get() is lock-free, computeIfAbsent() is only paid the first time an element shows up
+        LongAdder adder = counter.get(t);
+        if (adder == null) {
+            adder = counter.computeIfAbsent(t, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * Add all elements in l, thread-safe.
+     *
+     * @param l the list which must not contain NULL element.
+     */
+    public void addAll(List<T> l) {
+        l.forEach(this::add);
+    }
+
+    /**
+     * Get the current frequency of an element.
+     *
+     * @param t the element
+     * @return how many times t has been added so far, 0 if never.
+     */
+    public long count(T t) {
+        LongAdder adder = counter.get(t);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Get the top K frequent elements as a list, writers are not blocked while ranking.
+     *
+     * @param topK     the top k frequency threshold
+     * @param resolver the resolver to solve in case of tie, the frequency passed to it is capped at Integer.MAX_VALUE.
+     * @return the top K frequent elements
+     */
+    public List<T> findTopK(int topK, TopFrequentList.TieResolver<T> resolver) {
+        if (topK <= 0) {
+            return new ArrayList<>();
+        }
+
+        Comparator<Entry<T>> comparator = (o1, o2) -> {
+            if (o1.count == o2.count) {
+                return resolver.resolve((int) Math.min(o1.count, Integer.MAX_VALUE), o1.value, o2.value);
+            }
+            return Long.compare(o1.count, o2.count);
+        };
+        PriorityQueue<Entry<T>> queue = new PriorityQueue<>(topK, comparator);
+
+        // every count is read exactly once, so the comparator always works on a stable value even though writers go on
+        for (Map.Entry<T, LongAdder> e : counter.entrySet()) {
+            Entry<T> candidate = new Entry<>(e.getKey(), e.getValue().sum());
+            if (queue.size() < topK) {
+                queue.add(candidate);
+            } else if (comparator.compare(candidate, queue.peek()) > 0) {
+                queue.poll();
+                queue.add(candidate);
+            }
+        }
+
+        List<T> res = new ArrayList<>(queue.size());
+        while (!queue.isEmpty()) {
+            res.add(queue.poll().value);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /**
+     * The frozen (element, count) pair of a snapshot.
+     *
+     * @param <S>
+     */
+    private static class Entry<S> {
+        private final S value;
+        private final long count;
+
+        Entry(S value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+    }
+}
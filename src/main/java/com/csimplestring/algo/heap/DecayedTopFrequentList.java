@@ -0,0 +1,176 @@
+package com.csimplestring.algo.heap;
+
+import java.util.*;
+
+/**
+ * Decayed Top Frequency List, ranks elements by an exponentially decayed frequency, which is what "trending" means:
+ * an occurrence counts 1 when it happens, 1/2 after one half-life, 1/4 after two half-lives, and so on.
+ * <p>
+ * Decaying every score on every tick would be O(N), so the forward decay trick is used instead: an occurrence at
+ * time t adds exp(lambda * (t - landmark)) to the stored score, which grows rather than shrinks with time.
+ * As all stored scores share the same landmark, ranking them is the same as ranking the decayed scores,
+ * and the decayed value is only computed when needed: stored * exp(-lambda * (now - landmark)).
+ * When the exponent gets too large for a double, all scores are rescaled to a new landmark in one pass,
+ * which happens once every few hundred half-lives, and negligible scores are forgotten at the same time.
+ * <p>
+ * Adding an element which is already known allocates nothing.
+ *
+ * @param <T>
+ */
+public class DecayedTopFrequentList<T> {
+
+    /**
+     * rescale once the exponent goes beyond this, exp(700) is close to Double.MAX_VALUE.
+     */
+    private static final double MAX_EXPONENT = 600;
+
+    /**
+     * decayed scores below this are dropped when rescaling.
+     */
+    private static final double NEGLIGIBLE = 1e-6;
+
+    private final double lambda;
+    private final Map<T, Score<T>> scores = new HashMap<>();
+    private long landmark = Long.MIN_VALUE;
+
+    /**
+     * Constructor.
+     *
+     * @param halfLifeMillis after how long an occurrence only weighs half, in milliseconds
+     */
+    public DecayedTopFrequentList(long halfLifeMillis) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("half-life must be positive: " + halfLifeMillis);
+        }
+        this.lambda = Math.log(2) / halfLifeMillis;
+    }
+
+    /**
+     * Add element at the current time.
+     *
+     * @param t element must support hashCode() and must not be NULL
+     */
+    public void add(T t) {
+        add(t, System.currentTimeMillis());
+    }
+
+    /**
+     * Add element which occurred at a given time, timestamps may arrive slightly out of order.
+     *
+     * @param t               element must support hashCode() and must not be NULL
+     * @param timestampMillis when the element occurred
+     */
+    public void add(T t, long timestampMillis) {
+        if (landmark == Long.MIN_VALUE) {
+            landmark = timestampMillis;
+        }
+        double exponent = lambda * (timestampMillis - landmark);
+        if (exponent > MAX_EXPONENT) {
+            rescale(timestampMillis);
+            exponent = 0;
+        }
+
+        Score<T> s = scores.get(t);
+        if (s == null) {
+            s = new Score<>(t);
+            scores.put(t, s);
+        }
+        s.value += Math.exp(exponent);
+    }
+
+    /**
+     * Add all elements in l at the current time.
+     *
+     * @param l the list which must not contain NULL element.
+     */
+    public void addAll(List<T> l) {
+        long now = System.currentTimeMillis();
+        l.forEach(t -> add(t, now));
+    }
+
+    /**
+     * Get the decayed frequency of an element at a given time.
+     *
+     * @param t         the element
+     * @param nowMillis the time at which the score is evaluated
+     * @return the decayed frequency, 0 if not present.
+     */
+    public double score(T t, long nowMillis) {
+        Score<T> s = scores.get(t);
+        return s == null ? 0 : s.value * Math.exp(-lambda * (nowMillis - landmark));
+    }
+
+    /**
+     * Get the top K trending elements now.
+     *
+     * @param topK     the top k threshold
+     * @param resolver the resolver to solve in case of tie, the frequency passed to it is the rounded decayed score.
+     * @return the top K trending elements
+     */
+    public List<T> findTopK(int topK, TopFrequentList.TieResolver<T> resolver) {
+        return findTopK(topK, resolver, System.currentTimeMillis());
+    }
+
+    /**
+     * Get the top K trending elements at a given time. The ranking itself does not depend on the time,
+     * only the frequency passed to the resolver does.
+     *
+     * @param topK      the top k threshold
+     * @param resolver  the resolver to solve in case of tie, the frequency passed to it is the rounded decayed score.
+     * @param nowMillis the time at which the scores are evaluated
+     * @return the top K trending elements
+     */
+    public List<T> findTopK(int topK, TopFrequentList.TieResolver<T> resolver, long nowMillis) {
+        if (topK <= 0) {
+            return new ArrayList<>();
+        }
+
+        double decay = Math.exp(-lambda * (nowMillis - landmark));
+        PriorityQueue<Score<T>> queue = new PriorityQueue<>(topK, (o1, o2) -> {
+            if (o1.value == o2.value) {
+                int freq = (int) Math.min(Math.round(o1.value * decay), Integer.MAX_VALUE);
+                return resolver.resolve(freq, o1.element, o2.element);
+            }
+            return Double.compare(o1.value, o2.value);
+        });
+
+        for (Score<T> s : scores.values()) {
+            queue.add(s);
+            if (queue.size() > topK) {
+                queue.poll();
+            }
+        }
+
+        List<T> res = new ArrayList<>(queue.size());
+        while (!queue.isEmpty()) {
+            res.add(queue.poll().element);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /**
+     * Move the landmark to a newer time, so the stored scores do not overflow.
+     */
+    private void rescale(long newLandmark) {
+        double factor = Math.exp(-lambda * (newLandmark - landmark));
+        Iterator<Score<T>> it = scores.values().iterator();
+        while (it.hasNext()) {
+            Score<T> s = it.next();
+            s.value *= factor;
+            if (s.value < NEGLIGIBLE) {
+                it.remove();
+            }
+        }
+        landmark = newLandmark;
+    }
+
+    private static class Score<S> {
+        private final S element;
+        private double value = 0;
+
+        Score(S element) {
+            this.element = element;
+        }
+    }
+}
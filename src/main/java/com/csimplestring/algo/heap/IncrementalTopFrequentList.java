@@ -0,0 +1,289 @@
+package com.csimplestring.algo.heap;
+
+import java.util.*;
+
+/**
+ * Incremental Top Frequency List, keeps the elements ranked by frequency all the time, so reading the current top K
+ * does not scan every element like {@link TopFrequentList#findTopK(int, TopFrequentList.TieResolver)} does.
+ * <p>
+ * Internally it is a bucketed frequency list (the same layout as an O(1) LFU cache):
+ * - a doubly linked list of buckets, one bucket per distinct frequency, sorted by frequency;
+ * - every bucket holds a doubly linked list of the elements having exactly that frequency.
+ * <p>
+ * An add or a remove moves the element into the neighbour bucket, which is O(1).
+ * Reading the top K walks the buckets from the highest frequency down and stops after K elements, which is O(K).
+ * As elements can be decremented and removed, it also works as the counter of a sliding window.
+ *
+ * @param <T>
+ */
+public class IncrementalTopFrequentList<T> {
+
+    private final Map<T, Node<T>> nodes = new HashMap<>();
+
+    /**
+     * the bucket with the highest frequency, and the one with the lowest frequency.
+     */
+    private Bucket<T> highest;
+    private Bucket<T> lowest;
+
+    /**
+     * Add element, O(1).
+     *
+     * @param t element must support hashCode() and must not be NULL
+     */
+    public void add(T t) {
+        Node<T> node = nodes.get(t);
+        if (node == null) {
+            node = new Node<>(t);
+            nodes.put(t, node);
+            Bucket<T> target = lowest != null && lowest.count == 1 ? lowest : insertBucket(1, null, lowest);
+            target.append(node);
+            return;
+        }
+
+        Bucket<T> current = node.bucket;
+        Bucket<T> target = current.higher != null && current.higher.count == current.count + 1
+                ? current.higher
+                : insertBucket(current.count + 1, current, current.higher);
+        detach(node);
+        target.append(node);
+    }
+
+    /**
+     * Add all elements in l
+     *
+     * @param l the list which must not contain NULL element.
+     */
+    public void addAll(List<T> l) {
+        l.forEach(this::add);
+    }
+
+    /**
+     * Decrement the frequency of an element by one, O(1). The element is dropped once its frequency reaches 0.
+     *
+     * @param t the element
+     * @return false if the element is not present.
+     */
+    public boolean remove(T t) {
+        Node<T> node = nodes.get(t);
+        if (node == null) {
+            return false;
+        }
+
+        Bucket<T> current = node.bucket;
+        if (current.count == 1) {
+            detach(node);
+            nodes.remove(t);
+            return true;
+        }
+
+        Bucket<T> target = current.lower != null && current.lower.count == current.count - 1
+                ? current.lower
+                : insertBucket(current.count - 1, current.lower, current);
+        detach(node);
+        target.append(node);
+        return true;
+    }
+
+    /**
+     * Decrement all elements in l by one.
+     *
+     * @param l the list which must not contain NULL element.
+     */
+    public void removeAll(List<T> l) {
+        l.forEach(this::remove);
+    }
+
+    /**
+     * Drop an element whatever its frequency is, O(1).
+     *
+     * @param t the element
+     * @return the frequency the element had, 0 if not present.
+     */
+    public long delete(T t) {
+        Node<T> node = nodes.remove(t);
+        if (node == null) {
+            return 0;
+        }
+        long count = node.bucket.count;
+        detach(node);
+        return count;
+    }
+
+    /**
+     * Get the current frequency of an element.
+     *
+     * @param t the element
+     * @return the frequency, 0 if not present.
+     */
+    public long count(T t) {
+        Node<T> node = nodes.get(t);
+        return node == null ? 0 : node.bucket.count;
+    }
+
+    /**
+     * @return the number of distinct elements.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Get the top K frequent elements as a list in O(K) time.
+     * Elements with the same frequency are ordered by the time they reached that frequency, earliest first.
+     *
+     * @param topK the top k frequency threshold
+     * @return the top K frequent elements
+     */
+    public List<T> findTopK(int topK) {
+        List<T> res = new ArrayList<>(Math.max(0, Math.min(topK, nodes.size())));
+        for (Bucket<T> b = highest; b != null && res.size() < topK; b = b.lower) {
+            for (Node<T> n = b.head; n != null && res.size() < topK; n = n.next) {
+                res.add(n.value);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the top K frequent elements as a list, ties are ordered like {@link TopFrequentList}.
+     * The buckets fully included in the result are sorted, and only the best elements of the last bucket are selected,
+     * so it costs O(K * log(K) + B * log(K)) with B the size of the last bucket, rather than a scan of every element.
+     *
+     * @param topK     the top k frequency threshold
+     * @param resolver the resolver to solve in case of tie, the frequency passed to it is capped at Integer.MAX_VALUE.
+     * @return the top K frequent elements
+     */
+    public List<T> findTopK(int topK, TopFrequentList.TieResolver<T> resolver) {
+        List<T> res = new ArrayList<>(Math.max(0, Math.min(topK, nodes.size())));
+        for (Bucket<T> b = highest; b != null && res.size() < topK; b = b.lower) {
+            int freq = (int) Math.min(b.count, Integer.MAX_VALUE);
+            Comparator<T> ascending = (o1, o2) -> resolver.resolve(freq, o1, o2);
+            int remaining = topK - res.size();
+
+            if (b.size <= remaining) {
+                int from = res.size();
+                for (Node<T> n = b.head; n != null; n = n.next) {
+                    res.add(n.value);
+                }
+                res.subList(from, res.size()).sort(ascending.reversed());
+                continue;
+            }
+
+            PriorityQueue<T> queue = new PriorityQueue<>(remaining, ascending);
+            for (Node<T> n = b.head; n != null; n = n.next) {
+                queue.add(n.value);
+                if (queue.size() > remaining) {
+                    queue.poll();
+                }
+            }
+            int from = res.size();
+            while (!queue.isEmpty()) {
+                res.add(queue.poll());
+            }
+            Collections.reverse(res.subList(from, res.size()));
+        }
+        return res;
+    }
+
+    /**
+     * Create an empty bucket and link it between lower and higher.
+     */
+    private Bucket<T> insertBucket(long count, Bucket<T> lower, Bucket<T> higher) {
+        Bucket<T> b = new Bucket<>(count);
+        b.lower = lower;
+        b.higher = higher;
+        if (lower == null) {
+            lowest = b;
+        } else {
+            lower.higher = b;
+        }
+        if (higher == null) {
+            highest = b;
+        } else {
+            higher.lower = b;
+        }
+        return b;
+    }
+
+    /**
+     * Unlink the node from its bucket, the bucket itself is unlinked once empty.
+     */
+    private void detach(Node<T> node) {
+        Bucket<T> b = node.bucket;
+        b.unlink(node);
+        if (b.size > 0) {
+            return;
+        }
+
+        if (b.lower == null) {
+            lowest = b.higher;
+        } else {
+            b.lower.higher = b.higher;
+        }
+        if (b.higher == null) {
+            highest = b.lower;
+        } else {
+            b.higher.lower = b.lower;
+        }
+    }
+
+    private static class Node<S> {
+        private final S value;
+        private Bucket<S> bucket;
+        private Node<S> prev;
+        private Node<S> next;
+
+        Node(S value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Bucket holds all the elements having the same frequency.
+     *
+     * @param <S>
+     */
+    private static class Bucket<S> {
+        private final long count;
+        private Bucket<S> lower;
+        private Bucket<S> higher;
+        private Node<S> head;
+        private Node<S> tail;
+        private int size = 0;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+
+        void append(Node<S> node) {
+            node.bucket = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void unlink(Node<S> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.bucket = null;
+            size--;
+        }
+    }
+}
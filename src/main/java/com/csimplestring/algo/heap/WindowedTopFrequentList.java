@@ -0,0 +1,245 @@
+package com.csimplestring.algo.heap;
+
+import java.util.*;
+
+/**
+ * Windowed Top Frequency List, get the top K frequent elements among those added during the last time window,
+ * e.g., the top 10 in the last 5 minutes.
+ * <p>
+ * The window is split into a ring of time buckets: every element keeps its count in each bucket it was added in,
+ * plus its total. The counts are sparse, a pair (slot, count) per bucket the element occurs in, so an element seen
+ * once costs one pair however many buckets the window has.
+ * When the clock moves into a new bucket, the oldest bucket is recycled: only the elements which were actually
+ * counted in that bucket are visited and their totals are decreased. Every single add is therefore expired exactly
+ * once, which is O(1) amortized. Elements whose total drops to 0 are forgotten.
+ * <p>
+ * Adding an element which is already known allocates nothing, except when it shows up in more buckets than its pairs
+ * have room for, then they double, up to bucketNum.
+ * The precision of the window is one bucket: the window covers the last bucketNum buckets, including the current one.
+ *
+ * @param <T>
+ */
+public class WindowedTopFrequentList<T> {
+
+    private final long bucketMillis;
+    private final int bucketNum;
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+
+    /**
+     * ring slot -> the entries having a non-zero count in that slot.
+     */
+    private final List<List<Entry<T>>> touched;
+
+    /**
+     * the absolute index (timestamp / bucketMillis) of the newest bucket.
+     */
+    private long current = Long.MIN_VALUE;
+
+    /**
+     * Constructor.
+     *
+     * @param windowMillis the length of the window, in milliseconds, a multiple of bucketNum
+     * @param bucketNum    how many buckets the window is split into, the more buckets, the finer the expiry
+     */
+    public WindowedTopFrequentList(long windowMillis, int bucketNum) {
+        // otherwise the buckets would be rounded down, and the window silently shorter than asked
+        if (bucketNum <= 0 || windowMillis < bucketNum || windowMillis % bucketNum != 0) {
+            throw new IllegalArgumentException("invalid window: " + windowMillis + "ms in " + bucketNum + " buckets");
+        }
+        this.bucketMillis = windowMillis / bucketNum;
+        this.bucketNum = bucketNum;
+        this.touched = new ArrayList<>(bucketNum);
+        for (int i = 0; i < bucketNum; i++) {
+            this.touched.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Add element at the current time.
+     *
+     * @param t element must support hashCode() and must not be NULL
+     */
+    public void add(T t) {
+        add(t, System.currentTimeMillis());
+    }
+
+    /**
+     * Add element which occurred at a given time. Out-of-order timestamps are fine as long as they are still in the
+     * window, older ones are ignored.
+     *
+     * @param t               element must support hashCode() and must not be NULL
+     * @param timestampMillis when the element occurred
+     */
+    public void add(T t, long timestampMillis) {
+        long bucket = Math.floorDiv(timestampMillis, bucketMillis);
+        advance(bucket);
+        if (bucket <= current - bucketNum) {
+            return;
+        }
+
+        int slot = (int) Math.floorMod(bucket, (long) bucketNum);
+        Entry<T> e = entries.get(t);
+        if (e == null) {
+            e = new Entry<>(t);
+            entries.put(t, e);
+        }
+        if (e.increment(slot, bucketNum)) {
+            touched.get(slot).add(e);
+        }
+        e.total++;
+    }
+
+    /**
+     * Add all elements in l at the current time.
+     *
+     * @param l the list which must not contain NULL element.
+     */
+    public void addAll(List<T> l) {
+        long now = System.currentTimeMillis();
+        l.forEach(t -> add(t, now));
+    }
+
+    /**
+     * Get the frequency of an element in the window ending now.
+     *
+     * @param t the element
+     * @return the frequency, 0 if not present.
+     */
+    public long count(T t) {
+        advance(Math.floorDiv(System.currentTimeMillis(), bucketMillis));
+        Entry<T> e = entries.get(t);
+        return e == null ? 0 : e.total;
+    }
+
+    /**
+     * Get the top K frequent elements in the window ending now.
+     *
+     * @param topK     the top k frequency threshold
+     * @param resolver the resolver to solve in case of tie, the frequency passed to it is capped at Integer.MAX_VALUE.
+     * @return the top K frequent elements
+     */
+    public List<T> findTopK(int topK, TopFrequentList.TieResolver<T> resolver) {
+        return findTopK(topK, resolver, System.currentTimeMillis());
+    }
+
+    /**
+     * Get the top K frequent elements in the window ending at a given time.
+     *
+     * @param topK     the top k frequency threshold
+     * @param resolver the resolver to solve in case of tie, the frequency passed to it is capped at Integer.MAX_VALUE.
+     * @param nowMillis the end of the window, the clock never goes backward: an older value has no effect.
+     * @return the top K frequent elements
+     */
+    public List<T> findTopK(int topK, TopFrequentList.TieResolver<T> resolver, long nowMillis) {
+        advance(Math.floorDiv(nowMillis, bucketMillis));
+        if (topK <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<Entry<T>> queue = new PriorityQueue<>(topK, (o1, o2) -> {
+            if (o1.total == o2.total) {
+                return resolver.resolve((int) Math.min(o1.total, Integer.MAX_VALUE), o1.value, o2.value);
+            }
+            return Long.compare(o1.total, o2.total);
+        });
+
+        for (Entry<T> e : entries.values()) {
+            queue.add(e);
+            if (queue.size() > topK) {
+                queue.poll();
+            }
+        }
+
+        List<T> res = new ArrayList<>(queue.size());
+        while (!queue.isEmpty()) {
+            res.add(queue.poll().value);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /**
+     * Move the newest bucket forward, recycling the buckets falling out of the window.
+     */
+    private void advance(long bucket) {
+        if (bucket <= current) {
+            return;
+        }
+
+        // no need to recycle more than the whole ring, even after a long pause
+        long from = Math.max(current + 1, bucket - bucketNum + 1);
+        if (current == Long.MIN_VALUE) {
+            from = bucket;
+        }
+        for (long b = from; b <= bucket; b++) {
+            expire((int) Math.floorMod(b, (long) bucketNum));
+        }
+        current = bucket;
+    }
+
+    private void expire(int slot) {
+        List<Entry<T>> list = touched.get(slot);
+        for (Entry<T> e : list) {
+            e.total -= e.remove(slot);
+            if (e.total == 0) {
+                entries.remove(e.value);
+            }
+        }
+        list.clear();
+    }
+
+    /**
+     * Entry holds the counts of an element as (slot, count) pairs, oldest bucket first.
+     */
+    private static class Entry<S> {
+        private final S value;
+        private int[] slots = new int[1];
+        private int[] counts = new int[1];
+        private int size = 0;
+        private long total = 0;
+
+        Entry(S value) {
+            this.value = value;
+        }
+
+        /**
+         * Count one more occurrence in a slot. The adds are mostly in order, so the pairs are scanned from the newest.
+         *
+         * @return true if the element was not counted in that slot yet.
+         */
+        boolean increment(int slot, int bucketNum) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (slots[i] == slot) {
+                    counts[i]++;
+                    return false;
+                }
+            }
+            if (size == slots.length) {
+                int capacity = Math.min(2 * size, bucketNum);
+                slots = Arrays.copyOf(slots, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            slots[size] = slot;
+            counts[size++] = 1;
+            return true;
+        }
+
+        /**
+         * Forget the count of a slot, the expired one is mostly the oldest, so the pairs are scanned from the oldest.
+         *
+         * @return the count, 0 if the element was not counted in that slot.
+         */
+        int remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    int count = counts[i];
+                    System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+                    System.arraycopy(counts, i + 1, counts, i, size - i - 1);
+                    size--;
+                    return count;
+                }
+            }
+            return 0;
+        }
+    }
+}
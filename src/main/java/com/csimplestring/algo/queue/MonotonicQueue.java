@@ -12,9 +12,13 @@ import java.util.Comparator;
  * <p>
  * The usage of MonotonicQueue:
  * - given a sliding window whose size is k, the MonotonicQueue can find the max/min element in O(k).
+ * <p>
+ * For int/long/double windows, see {@link SlidingWindowExtremum}: it evicts by position instead of by equality,
+ * and keeps primitives in a preallocated ring buffer instead of boxed elements in an {@link ArrayDeque}.
  *
  * @param <T> the element type
  * @see {https://en.wikipedia.org/wiki/Monotone_priority_queue}
+ * @see SlidingWindowExtremum
  */
 class MonotonicQueue<T> {
     private final ArrayDeque<T> deque;
@@ -0,0 +1,417 @@
+package com.csimplestring.algo.queue;
+
+import java.util.NoSuchElementException;
+
+/**
+ * SlidingWindowExtremum is the primitive, index-based counterpart of {@link MonotonicQueue}: the max (or min) of the
+ * last k elements of a stream, in amortized O(1) time per element.
+ * <p>
+ * Same monotonic deque idea, but each entry remembers its position in the stream, so an entry leaves the window
+ * because its position is too old, not because its value equals the one leaving, and the deque is a preallocated
+ * ring buffer of primitives instead of an {@link java.util.ArrayDeque} of boxed elements: nothing is allocated
+ * once the window is created.
+ * <p>
+ * - the bulk methods, e.g., {@link #slidingMax(double[], int, double[])}, compute every full window of an array;
+ * - {@link OfInt}, {@link OfLong} and {@link OfDouble} follow a stream one element at a time.
+ * On ties the newest element is kept, so a run of equal values takes a single slot.
+ * Doubles are ordered by {@link Double#compare}: -0.0 is less than 0.0, and NaN is greater than everything.
+ */
+public class SlidingWindowExtremum {
+
+    private SlidingWindowExtremum() {
+    }
+
+    /**
+     * out[i] = max(in[i..i + k - 1]) for every full window.
+     *
+     * @param in  the input
+     * @param k   the window size
+     * @param out the output, at least in.length - k + 1 long
+     */
+    public static void slidingMax(double[] in, int k, double[] out) {
+        sliding(in, k, out, true);
+    }
+
+    /**
+     * out[i] = min(in[i..i + k - 1]) for every full window.
+     *
+     * @param in  the input
+     * @param k   the window size
+     * @param out the output, at least in.length - k + 1 long
+     */
+    public static void slidingMin(double[] in, int k, double[] out) {
+        sliding(in, k, out, false);
+    }
+
+    public static void slidingMax(long[] in, int k, long[] out) {
+        sliding(in, k, out, true);
+    }
+
+    public static void slidingMin(long[] in, int k, long[] out) {
+        sliding(in, k, out, false);
+    }
+
+    public static void slidingMax(int[] in, int k, int[] out) {
+        sliding(in, k, out, true);
+    }
+
+    public static void slidingMin(int[] in, int k, int[] out) {
+        sliding(in, k, out, false);
+    }
+
+    /**
+     * The deque holds indexes into in, it is the only allocation, once per call.
+     */
+    private static void sliding(double[] in, int k, double[] out, boolean max) {
+        check(in.length, k, out.length);
+        // the deque never holds more than k, nor more than in.length, indexes
+        int capacity = Math.max(1, Math.min(k, in.length));
+        int[] deque = new int[capacity];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < in.length; i++) {
+            if (size > 0 && deque[head] <= i - k) {
+                head = head + 1 == capacity ? 0 : head + 1;
+                size--;
+            }
+            double v = in[i];
+            while (size > 0) {
+                int c = Double.compare(in[deque[tail(head, size, capacity)]], v);
+                if (max ? c > 0 : c < 0) {
+                    break;
+                }
+                size--;
+            }
+            deque[tail(head, size + 1, capacity)] = i;
+            size++;
+            if (i >= k - 1) {
+                out[i - k + 1] = in[deque[head]];
+            }
+        }
+    }
+
+    private static void sliding(long[] in, int k, long[] out, boolean max) {
+        check(in.length, k, out.length);
+        // the deque never holds more than k, nor more than in.length, indexes
+        int capacity = Math.max(1, Math.min(k, in.length));
+        int[] deque = new int[capacity];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < in.length; i++) {
+            if (size > 0 && deque[head] <= i - k) {
+                head = head + 1 == capacity ? 0 : head + 1;
+                size--;
+            }
+            long v = in[i];
+            while (size > 0) {
+                long last = in[deque[tail(head, size, capacity)]];
+                if (max ? last > v : last < v) {
+                    break;
+                }
+                size--;
+            }
+            deque[tail(head, size + 1, capacity)] = i;
+            size++;
+            if (i >= k - 1) {
+                out[i - k + 1] = in[deque[head]];
+            }
+        }
+    }
+
+    private static void sliding(int[] in, int k, int[] out, boolean max) {
+        check(in.length, k, out.length);
+        // the deque never holds more than k, nor more than in.length, indexes
+        int capacity = Math.max(1, Math.min(k, in.length));
+        int[] deque = new int[capacity];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < in.length; i++) {
+            if (size > 0 && deque[head] <= i - k) {
+                head = head + 1 == capacity ? 0 : head + 1;
+                size--;
+            }
+            int v = in[i];
+            while (size > 0) {
+                int last = in[deque[tail(head, size, capacity)]];
+                if (max ? last > v : last < v) {
+                    break;
+                }
+                size--;
+            }
+            deque[tail(head, size + 1, capacity)] = i;
+            size++;
+            if (i >= k - 1) {
+                out[i - k + 1] = in[deque[head]];
+            }
+        }
+    }
+
+    private static int tail(int head, int size, int capacity) {
+        int t = head + size - 1;
+        return t >= capacity ? t - capacity : t;
+    }
+
+    private static void check(int n, int k, int outLength) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("the window size must be positive: " + k);
+        }
+        if (outLength < Math.max(0, n - k + 1)) {
+            throw new IllegalArgumentException("out must hold " + (n - k + 1) + " windows, got " + outLength);
+        }
+    }
+
+    /**
+     * The max or min of the last k doubles of a stream.
+     */
+    public static final class OfDouble {
+        private final int window;
+        private final boolean max;
+        private final double[] values;
+        private final long[] positions;
+        private int head = 0;
+        private int size = 0;
+        private long count = 0;
+
+        private OfDouble(int window, boolean max) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("the window size must be positive: " + window);
+            }
+            this.window = window;
+            this.max = max;
+            this.values = new double[window];
+            this.positions = new long[window];
+        }
+
+        public static OfDouble max(int window) {
+            return new OfDouble(window, true);
+        }
+
+        public static OfDouble min(int window) {
+            return new OfDouble(window, false);
+        }
+
+        /**
+         * Append an element, the element k positions back leaves the window.
+         *
+         * @param v the element
+         */
+        public void add(double v) {
+            if (size > 0 && positions[head] <= count - window) {
+                head = head + 1 == window ? 0 : head + 1;
+                size--;
+            }
+            while (size > 0) {
+                int c = Double.compare(values[tail(head, size, window)], v);
+                if (max ? c > 0 : c < 0) {
+                    break;
+                }
+                size--;
+            }
+            int slot = tail(head, size + 1, window);
+            values[slot] = v;
+            positions[slot] = count++;
+            size++;
+        }
+
+        /**
+         * @return the max (or min) of the window.
+         * @throws NoSuchElementException if nothing was added yet.
+         */
+        public double get() {
+            if (size == 0) {
+                throw new NoSuchElementException("the window is empty");
+            }
+            return values[head];
+        }
+
+        /**
+         * @return the number of elements added since creation or the last clear.
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return true once the window has seen k elements.
+         */
+        public boolean isFull() {
+            return count >= window;
+        }
+
+        public void clear() {
+            head = 0;
+            size = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * The max or min of the last k longs of a stream.
+     */
+    public static final class OfLong {
+        private final int window;
+        private final boolean max;
+        private final long[] values;
+        private final long[] positions;
+        private int head = 0;
+        private int size = 0;
+        private long count = 0;
+
+        private OfLong(int window, boolean max) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("the window size must be positive: " + window);
+            }
+            this.window = window;
+            this.max = max;
+            this.values = new long[window];
+            this.positions = new long[window];
+        }
+
+        public static OfLong max(int window) {
+            return new OfLong(window, true);
+        }
+
+        public static OfLong min(int window) {
+            return new OfLong(window, false);
+        }
+
+        /**
+         * Append an element, the element k positions back leaves the window.
+         *
+         * @param v the element
+         */
+        public void add(long v) {
+            if (size > 0 && positions[head] <= count - window) {
+                head = head + 1 == window ? 0 : head + 1;
+                size--;
+            }
+            while (size > 0) {
+                long last = values[tail(head, size, window)];
+                if (max ? last > v : last < v) {
+                    break;
+                }
+                size--;
+            }
+            int slot = tail(head, size + 1, window);
+            values[slot] = v;
+            positions[slot] = count++;
+            size++;
+        }
+
+        /**
+         * @return the max (or min) of the window.
+         * @throws NoSuchElementException if nothing was added yet.
+         */
+        public long get() {
+            if (size == 0) {
+                throw new NoSuchElementException("the window is empty");
+            }
+            return values[head];
+        }
+
+        /**
+         * @return the number of elements added since creation or the last clear.
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return true once the window has seen k elements.
+         */
+        public boolean isFull() {
+            return count >= window;
+        }
+
+        public void clear() {
+            head = 0;
+            size = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * The max or min of the last k ints of a stream.
+     */
+    public static final class OfInt {
+        private final int window;
+        private final boolean max;
+        private final int[] values;
+        private final long[] positions;
+        private int head = 0;
+        private int size = 0;
+        private long count = 0;
+
+        private OfInt(int window, boolean max) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("the window size must be positive: " + window);
+            }
+            this.window = window;
+            this.max = max;
+            this.values = new int[window];
+            this.positions = new long[window];
+        }
+
+        public static OfInt max(int window) {
+            return new OfInt(window, true);
+        }
+
+        public static OfInt min(int window) {
+            return new OfInt(window, false);
+        }
+
+        /**
+         * Append an element, the element k positions back leaves the window.
+         *
+         * @param v the element
+         */
+        public void add(int v) {
+            if (size > 0 && positions[head] <= count - window) {
+                head = head + 1 == window ? 0 : head + 1;
+                size--;
+            }
+            while (size > 0) {
+                int last = values[tail(head, size, window)];
+                if (max ? last > v : last < v) {
+                    break;
+                }
+                size--;
+            }
+            int slot = tail(head, size + 1, window);
+            values[slot] = v;
+            positions[slot] = count++;
+            size++;
+        }
+
+        /**
+         * @return the max (or min) of the window.
+         * @throws NoSuchElementException if nothing was added yet.
+         */
+        public int get() {
+            if (size == 0) {
+                throw new NoSuchElementException("the window is empty");
+            }
+            return values[head];
+        }
+
+        /**
+         * @return the number of elements added since creation or the last clear.
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return true once the window has seen k elements.
+         */
+        public boolean isFull() {
+            return count >= window;
+        }
+
+        public void clear() {
+            head = 0;
+            size = 0;
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.csimplestring.algo.string;
+
+import java.util.*;
+
+/**
+ * AutocompleteTrie is a weighted {@link Trie} answering "the k best completions of a prefix" for typeahead.
+ * <p>
+ * Every node caches the best maxK completions of its subtree, sorted by weight (descending) then by word.
+ * A query only walks down the prefix and copies the first k cached words, so it costs O(prefix length + k)
+ * whatever the size of the subtree is.
+ * <p>
+ * The caches are kept correct when a weight changes: only the nodes on the path of the changed word can be affected,
+ * and they are fixed bottom-up. In most cases a node just moves the word inside its cache, and a node only rebuilds
+ * its cache from its children's caches when the word was in it and either got removed or dropped its weight,
+ * since the best completions of a subtree are always among the best completions of its children.
+ * <p>
+ * Any char is accepted, children are kept in a sorted char[] like {@link RadixTrie}.
+ */
+public class AutocompleteTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private static final Comparator<Completion> BEST_FIRST = (c1, c2) -> {
+        if (c1.weight != c2.weight) {
+            return Long.compare(c2.weight, c1.weight);
+        }
+        return c1.word.compareTo(c2.word);
+    };
+
+    private final int maxK;
+    private final Node root;
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param maxK the max k a query can ask for, which is the size of the cache of each node.
+     */
+    public AutocompleteTrie(int maxK) {
+        if (maxK <= 0) {
+            throw new IllegalArgumentException("maxK must be positive: " + maxK);
+        }
+        this.maxK = maxK;
+        this.root = new Node(maxK);
+    }
+
+    /**
+     * Insert a word with a weight, or update its weight if it already exists.
+     *
+     * @param word   the word, must not be NULL
+     * @param weight the weight, the higher the better
+     */
+    public void put(String word, long weight) {
+        Node[] path = new Node[word.length() + 1];
+        Node node = this.root;
+        path[0] = node;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.getOrCreate(word.charAt(i), maxK);
+            path[i + 1] = node;
+        }
+
+        Completion c = node.completion;
+        boolean decreased = false;
+        if (c == null) {
+            c = new Completion(word, weight);
+            node.completion = c;
+            size++;
+        } else {
+            decreased = weight < c.weight;
+            c.weight = weight;
+        }
+
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].update(c, decreased);
+        }
+    }
+
+    /**
+     * Remove a word.
+     *
+     * @param word the word
+     * @return false if the word does not exist.
+     */
+    public boolean remove(String word) {
+        Node[] path = findPath(word);
+        if (path == null) {
+            return false;
+        }
+        Node node = path[path.length - 1];
+        Completion c = node.completion;
+        node.completion = null;
+        size--;
+
+        for (int i = path.length - 1; i >= 0; i--) {
+            if (path[i].indexOf(c) >= 0) {
+                path[i].rebuild();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the weight of a word.
+     *
+     * @param word the word
+     * @return the weight, or empty if the word does not exist.
+     */
+    public OptionalLong getWeight(String word) {
+        Node node = walk(word);
+        if (node == null || node.completion == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(node.completion.weight);
+    }
+
+    /**
+     * Get the k best completions of a prefix in O(prefix length + k) time.
+     *
+     * @param prefix the prefix, an empty prefix returns the best words overall
+     * @param k      how many completions at most, must not be greater than maxK
+     * @return the completions, from the highest weight to the lowest, ties are ordered by word.
+     */
+    public List<String> topKCompletions(String prefix, int k) {
+        if (k > maxK) {
+            throw new IllegalArgumentException("k must not be greater than " + maxK + ": " + k);
+        }
+        Node node = walk(prefix);
+        if (node == null || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        int n = Math.min(k, node.topSize);
+        List<String> res = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            res.add(node.top[i].word);
+        }
+        return res;
+    }
+
+    /**
+     * @return the number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    private Node walk(String s) {
+        Node node = this.root;
+        for (int i = 0; i < s.length() && node != null; i++) {
+            node = node.get(s.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * @return the nodes from the root to the node of word, or null if the word does not exist.
+     */
+    private Node[] findPath(String word) {
+        Node[] path = new Node[word.length() + 1];
+        Node node = this.root;
+        path[0] = node;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.get(word.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            path[i + 1] = node;
+        }
+        return node.completion == null ? null : path;
+    }
+
+    private static class Completion {
+        private final String word;
+        private long weight;
+
+        Completion(String word, long weight) {
+            this.word = word;
+            this.weight = weight;
+        }
+    }
+
+    private static class Node {
+        private char[] firsts = NO_CHARS;
+        private Node[] children = NO_NODES;
+
+        /**
+         * not null if a word ends at this node.
+         */
+        private Completion completion;
+
+        /**
+         * the best completions of the subtree, sorted by BEST_FIRST.
+         */
+        private final Completion[] top;
+        private int topSize = 0;
+
+        Node(int maxK) {
+            this.top = new Completion[maxK];
+        }
+
+        Node get(char ch) {
+            int idx = Arrays.binarySearch(this.firsts, ch);
+            return idx < 0 ? null : this.children[idx];
+        }
+
+        Node getOrCreate(char ch, int maxK) {
+            int idx = Arrays.binarySearch(this.firsts, ch);
+            if (idx >= 0) {
+                return this.children[idx];
+            }
+
+            idx = -idx - 1;
+            int n = this.firsts.length;
+            char[] newFirsts = new char[n + 1];
+            Node[] newChildren = new Node[n + 1];
+            System.arraycopy(this.firsts, 0, newFirsts, 0, idx);
+            System.arraycopy(this.children, 0, newChildren, 0, idx);
+            System.arraycopy(this.firsts, idx, newFirsts, idx + 1, n - idx);
+            System.arraycopy(this.children, idx, newChildren, idx + 1, n - idx);
+            Node child = new Node(maxK);
+            newFirsts[idx] = ch;
+            newChildren[idx] = child;
+            this.firsts = newFirsts;
+            this.children = newChildren;
+            return child;
+        }
+
+        int indexOf(Completion c) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Fix the cache after the weight of c changed or c was inserted, the children must be fixed already.
+         */
+        void update(Completion c, boolean decreased) {
+            int idx = indexOf(c);
+            if (idx >= 0) {
+                if (decreased && topSize == top.length) {
+                    // a completion outside the cache may be better now
+                    rebuild();
+                } else {
+                    reposition(idx);
+                }
+                return;
+            }
+
+            if (topSize < top.length) {
+                top[topSize++] = c;
+                reposition(topSize - 1);
+            } else if (BEST_FIRST.compare(c, top[topSize - 1]) < 0) {
+                top[topSize - 1] = c;
+                reposition(topSize - 1);
+            }
+        }
+
+        /**
+         * Move top[idx] to its sorted position, like one pass of insertion sort in either direction.
+         */
+        private void reposition(int idx) {
+            Completion c = top[idx];
+            while (idx > 0 && BEST_FIRST.compare(c, top[idx - 1]) < 0) {
+                top[idx] = top[idx - 1];
+                idx--;
+            }
+            while (idx < topSize - 1 && BEST_FIRST.compare(top[idx + 1], c) < 0) {
+                top[idx] = top[idx + 1];
+                idx++;
+            }
+            top[idx] = c;
+        }
+
+        /**
+         * Rebuild the cache from the own completion and the caches of the children.
+         */
+        void rebuild() {
+            List<Completion> candidates = new ArrayList<>();
+            if (completion != null) {
+                candidates.add(completion);
+            }
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top).subList(0, child.topSize));
+            }
+            candidates.sort(BEST_FIRST);
+
+            topSize = Math.min(top.length, candidates.size());
+            for (int i = 0; i < top.length; i++) {
+                top[i] = i < topSize ? candidates.get(i) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.csimplestring.algo.string;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentTrie is a thread-safe {@link Trie} which can be updated word by word while being read:
+ * lookups are lock-free and never block, even while a writer inserts or deletes words.
+ * <p>
+ * The children of a node are a sorted Node[] which is never modified in place: a writer builds a new array and
+ * publishes it with a single volatile write (copy-on-write). A new branch is fully built before being published,
+ * so a reader either sees the whole new word or nothing of it. Deleting a word clears its terminal flag first and
+ * then unlinks the branch which became useless, so a reader still walking that branch simply finds no word.
+ * Each lookup is therefore linearizable, it behaves as if it ran entirely before or after every update.
+ * <p>
+ * Writers are serialized by a lock, which is fine for a dictionary updated a few times per second
+ * and read millions of times. Any char is supported, like {@link RadixTrie}.
+ */
+public class ConcurrentTrie {
+
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root = new Node('\0');
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile int size = 0;
+
+    public ConcurrentTrie() {
+    }
+
+    public ConcurrentTrie(String[] words) {
+        for (String word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * Add a word, readers are not blocked.
+     *
+     * @param word the word, must not be NULL
+     * @return true if the word was not present yet.
+     */
+    public boolean add(String word) {
+        writeLock.lock();
+        try {
+            Node node = this.root;
+            int i = 0;
+            while (i < word.length()) {
+                Node child = node.child(word.charAt(i));
+                if (child == null) {
+                    break;
+                }
+                node = child;
+                i++;
+            }
+
+            if (i == word.length()) {
+                if (node.terminal) {
+                    return false;
+                }
+                node.terminal = true;
+                size++;
+                return true;
+            }
+
+            // build the missing branch bottom-up, then publish it at once
+            Node branch = new Node(word.charAt(word.length() - 1));
+            branch.terminal = true;
+            for (int j = word.length() - 2; j >= i; j--) {
+                Node parent = new Node(word.charAt(j));
+                parent.children = new Node[]{branch};
+                branch = parent;
+            }
+            node.insertChild(branch);
+            size++;
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a word, readers are not blocked.
+     *
+     * @param word the word
+     * @return false if the word does not exist.
+     */
+    public boolean remove(String word) {
+        writeLock.lock();
+        try {
+            Node[] path = new Node[word.length() + 1];
+            Node node = this.root;
+            path[0] = node;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.child(word.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                path[i + 1] = node;
+            }
+            if (!node.terminal) {
+                return false;
+            }
+
+            node.terminal = false;
+            size--;
+
+            // unlink the nodes which lead to no word any more
+            for (int i = word.length(); i > 0; i--) {
+                Node n = path[i];
+                if (n.terminal || n.children.length > 0) {
+                    break;
+                }
+                path[i - 1].removeChild(n.ch);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add all words, each word is visible as soon as it is added.
+     *
+     * @param words the words
+     */
+    public void addAll(Collection<String> words) {
+        writeLock.lock();
+        try {
+            words.forEach(this::add);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove all words, each word is gone as soon as it is removed.
+     *
+     * @param words the words
+     */
+    public void removeAll(Collection<String> words) {
+        writeLock.lock();
+        try {
+            words.forEach(this::remove);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Check if a word exists, lock-free.
+     *
+     * @param word the word
+     * @return true if the word exists.
+     */
+    public boolean contains(CharSequence word) {
+        Node node = this.root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.child(word.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Find the longest word which is a prefix of the given text, lock-free.
+     *
+     * @param text the text
+     * @return the longest matching word, or null if no word is a prefix of text.
+     */
+    public String longestPrefixMatch(CharSequence text) {
+        int length = longestPrefixLength(text);
+        return length < 0 ? null : text.subSequence(0, length).toString();
+    }
+
+    /**
+     * Find the length of the longest word which is a prefix of the given text, lock-free.
+     *
+     * @param text the text
+     * @return the length of the longest matching word, or -1 if no word is a prefix of text.
+     */
+    public int longestPrefixLength(CharSequence text) {
+        Node node = this.root;
+        int best = node.terminal ? 0 : -1;
+        for (int i = 0; i < text.length(); i++) {
+            node = node.child(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.terminal) {
+                best = i + 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static class Node {
+        private final char ch;
+        private volatile boolean terminal;
+
+        /**
+         * sorted by ch, never modified once published.
+         */
+        private volatile Node[] children = NO_NODES;
+
+        Node(char ch) {
+            this.ch = ch;
+        }
+
+        Node child(char c) {
+            Node[] nodes = this.children;
+            int lo = 0;
+            int hi = nodes.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char midCh = nodes[mid].ch;
+                if (midCh < c) {
+                    lo = mid + 1;
+                } else if (midCh > c) {
+                    hi = mid - 1;
+                } else {
+                    return nodes[mid];
+                }
+            }
+            return null;
+        }
+
+        void insertChild(Node child) {
+            Node[] nodes = this.children;
+            int idx = 0;
+            while (idx < nodes.length && nodes[idx].ch < child.ch) {
+                idx++;
+            }
+            Node[] copy = new Node[nodes.length + 1];
+            System.arraycopy(nodes, 0, copy, 0, idx);
+            copy[idx] = child;
+            System.arraycopy(nodes, idx, copy, idx + 1, nodes.length - idx);
+            this.children = copy;
+        }
+
+        void removeChild(char c) {
+            Node[] nodes = this.children;
+            if (nodes.length == 1) {
+                this.children = NO_NODES;
+                return;
+            }
+            Node[] copy = new Node[nodes.length - 1];
+            int j = 0;
+            for (Node n : nodes) {
+                if (n.ch != c) {
+                    copy[j++] = n;
+                }
+            }
+            this.children = copy;
+        }
+    }
+}
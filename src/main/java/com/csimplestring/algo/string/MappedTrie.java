@@ -0,0 +1,230 @@
+package com.csimplestring.algo.string;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedTrie is an immutable trie compiled into a flat binary file, which is queried directly through
+ * {@link FileChannel#map}, without deserializing anything onto the heap.
+ * <p>
+ * Opening a snapshot only maps the file, so it takes milliseconds whatever the size of the dictionary is,
+ * the pages are loaded lazily by the OS on first access. The mapping is read-only and shared, so several processes
+ * opening the same file share the same physical pages in the page cache.
+ * <p>
+ * The file is position-independent: all references are offsets from the beginning of the file, in big endian.
+ * <pre>
+ * header: int magic, int version, int word count, int root offset
+ * node:   int (child count &lt;&lt; 1 | terminal), then per child sorted by label: char label, int child offset
+ * </pre>
+ * Nodes are written in post-order, so a node always follows its children. Offsets are int, so a snapshot is limited
+ * to 2GB. Any char is supported, like {@link RadixTrie}.
+ */
+public class MappedTrie {
+
+    private static final int MAGIC = 0x54524945;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int CHILD_BYTES = 6;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int root;
+
+    private MappedTrie(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a trie snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("unsupported trie snapshot version: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.root = buffer.getInt(12);
+    }
+
+    /**
+     * Compile words into a snapshot file, the file is overwritten if it exists.
+     *
+     * @param words the words, duplicates are ignored
+     * @param file  the snapshot file
+     * @throws IOException if the file can not be written
+     */
+    public static void compile(String[] words, Path file) throws IOException {
+        String[] sorted = words.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || !sorted[i].equals(sorted[n - 1])) {
+                sorted[n++] = sorted[i];
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            Writer writer = new Writer(sorted, out);
+            int root = writer.write(0, n, 0);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(root).flip();
+            channel.write(header, 0);
+        }
+    }
+
+    /**
+     * Open a snapshot, only the mapping is set up, no data is read.
+     *
+     * @param file the snapshot file
+     * @return the trie
+     * @throws IOException if the file can not be mapped
+     */
+    public static MappedTrie open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new MappedTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Check if a word exists.
+     *
+     * @param word the word
+     * @return true if the word was compiled in.
+     */
+    public boolean contains(CharSequence word) {
+        int node = this.root;
+        for (int i = 0; i < word.length(); i++) {
+            node = child(node, word.charAt(i));
+            if (node < 0) {
+                return false;
+            }
+        }
+        return (buffer.getInt(node) & 1) != 0;
+    }
+
+    /**
+     * Find the longest word which is a prefix of the given text.
+     *
+     * @param text the text
+     * @return the longest matching word, or null if no word is a prefix of text.
+     */
+    public String longestPrefixMatch(CharSequence text) {
+        int length = longestPrefixLength(text);
+        return length < 0 ? null : text.subSequence(0, length).toString();
+    }
+
+    /**
+     * Find the length of the longest word which is a prefix of the given text.
+     *
+     * @param text the text
+     * @return the length of the longest matching word, or -1 if no word is a prefix of text.
+     */
+    public int longestPrefixLength(CharSequence text) {
+        int node = this.root;
+        int best = (buffer.getInt(node) & 1) != 0 ? 0 : -1;
+        for (int i = 0; i < text.length(); i++) {
+            node = child(node, text.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            if ((buffer.getInt(node) & 1) != 0) {
+                best = i + 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Binary search the child of a node, only absolute reads are used, so queries are thread-safe.
+     *
+     * @return the offset of the child or -1.
+     */
+    private int child(int node, char ch) {
+        int lo = 0;
+        int hi = (buffer.getInt(node) >>> 1) - 1;
+        int base = node + 4;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = buffer.getChar(base + mid * CHILD_BYTES);
+            if (label < ch) {
+                lo = mid + 1;
+            } else if (label > ch) {
+                hi = mid - 1;
+            } else {
+                return buffer.getInt(base + mid * CHILD_BYTES + 2);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writer serializes sorted words in post-order, keeping track of the file offset.
+     */
+    private static class Writer {
+        private final String[] words;
+        private final DataOutputStream out;
+        private long offset = HEADER_BYTES;
+
+        Writer(String[] words, DataOutputStream out) {
+            this.words = words;
+            this.out = out;
+        }
+
+        /**
+         * Write the node of the words in [lo, hi), which all share the same prefix of length depth.
+         *
+         * @return the offset of the node
+         */
+        int write(int lo, int hi, int depth) throws IOException {
+            boolean terminal = lo < hi && words[lo].length() == depth;
+            int from = terminal ? lo + 1 : lo;
+
+            int count = 0;
+            for (int i = from; i < hi; i++) {
+                if (i == from || words[i].charAt(depth) != words[i - 1].charAt(depth)) {
+                    count++;
+                }
+            }
+
+            char[] labels = new char[count];
+            int[] children = new int[count];
+            int c = 0;
+            int start = from;
+            for (int i = from + 1; i <= hi; i++) {
+                if (i == hi || words[i].charAt(depth) != words[start].charAt(depth)) {
+                    labels[c] = words[start].charAt(depth);
+                    children[c++] = write(start, i, depth + 1);
+                    start = i;
+                }
+            }
+
+            if (offset + 4 + (long) count * CHILD_BYTES > Integer.MAX_VALUE) {
+                throw new IllegalStateException("trie snapshot exceeds 2GB");
+            }
+            int self = (int) offset;
+            out.writeInt(count << 1 | (terminal ? 1 : 0));
+            for (int i = 0; i < count; i++) {
+                out.writeChar(labels[i]);
+                out.writeInt(children[i]);
+            }
+            offset += 4 + (long) count * CHILD_BYTES;
+            return self;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.csimplestring.algo.string;
+
+import java.util.Arrays;
+
+/**
+ * RadixTrie is a path-compressed {@link Trie}: a chain of nodes having a single child is merged into one edge labelled
+ * with the whole substring, so a node is only created where words branch or end.
+ * <p>
+ * Unlike {@link Trie}, it works on any char, so any Unicode text is supported (a supplementary code point is simply
+ * stored as its two UTF-16 chars), and the children are not a fixed Node[26] table: every node keeps a sorted
+ * char[] of the first chars of its children next to a Node[] of the same size, searched with a binary search.
+ * Leaves share empty arrays. Compared with one Node[26] per char, this cuts the memory per word by more than
+ * an order of magnitude, {@link #memoryUsage()} reports the estimated figures.
+ */
+public class RadixTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root = new Node(NO_CHARS);
+    private int size = 0;
+
+    public RadixTrie() {
+    }
+
+    public RadixTrie(String[] words) {
+        for (String word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * Add a word.
+     *
+     * @param word the word, must not be NULL
+     * @return true if the word was not present yet.
+     */
+    public boolean add(String word) {
+        Node node = this.root;
+        int i = 0;
+        while (i < word.length()) {
+            int idx = node.indexOf(word.charAt(i));
+            if (idx < 0) {
+                Node leaf = new Node(word.substring(i).toCharArray());
+                leaf.terminal = true;
+                node.insertChild(-idx - 1, leaf);
+                size++;
+                return true;
+            }
+
+            Node child = node.children[idx];
+            int common = commonPrefix(child.label, word, i);
+            if (common < child.label.length) {
+                // the word leaves the edge in the middle, split the edge at that point
+                child = node.split(idx, common);
+            }
+            node = child;
+            i += common;
+        }
+
+        if (node.terminal) {
+            return false;
+        }
+        node.terminal = true;
+        size++;
+        return true;
+    }
+
+    /**
+     * Check if a word exists.
+     *
+     * @param word the word
+     * @return true if the word was added.
+     */
+    public boolean contains(CharSequence word) {
+        Node node = this.root;
+        int i = 0;
+        while (i < word.length()) {
+            int idx = node.indexOf(word.charAt(i));
+            if (idx < 0) {
+                return false;
+            }
+            node = node.children[idx];
+            if (commonPrefix(node.label, word, i) < node.label.length) {
+                return false;
+            }
+            i += node.label.length;
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Find the longest word which is a prefix of the given text.
+     *
+     * @param text the text
+     * @return the longest matching word, or null if no word is a prefix of text.
+     */
+    public String longestPrefixMatch(CharSequence text) {
+        int length = longestPrefixLength(text);
+        return length < 0 ? null : text.subSequence(0, length).toString();
+    }
+
+    /**
+     * Find the length of the longest word which is a prefix of the given text.
+     *
+     * @param text the text
+     * @return the length of the longest matching word, or -1 if no word is a prefix of text.
+     */
+    public int longestPrefixLength(CharSequence text) {
+        Node node = this.root;
+        int best = node.terminal ? 0 : -1;
+        int i = 0;
+        while (i < text.length()) {
+            int idx = node.indexOf(text.charAt(i));
+            if (idx < 0) {
+                break;
+            }
+            node = node.children[idx];
+            if (commonPrefix(node.label, text, i) < node.label.length) {
+                break;
+            }
+            i += node.label.length;
+            if (node.terminal) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Walk the whole trie to estimate its memory footprint, assuming a 64-bit JVM with compressed oops.
+     *
+     * @return the memory usage report.
+     */
+    public MemoryUsage memoryUsage() {
+        long nodes = 0;
+        long labelChars = 0;
+        long childSlots = 0;
+        long bytes = 0;
+
+        Node[] stack = new Node[16];
+        int top = 0;
+        stack[top++] = this.root;
+        while (top > 0) {
+            Node node = stack[--top];
+            nodes++;
+            labelChars += node.label.length;
+            childSlots += node.children.length;
+            // object header + 3 references + boolean, padded to 8
+            bytes += 32;
+            if (node.label.length > 0) {
+                bytes += arrayBytes(node.label.length, 2);
+            }
+            if (node.children.length > 0) {
+                bytes += arrayBytes(node.firsts.length, 2) + arrayBytes(node.children.length, 4);
+            }
+
+            for (Node child : node.children) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = child;
+            }
+        }
+        return new MemoryUsage(size, nodes, labelChars, childSlots, bytes);
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return (16 + (long) length * elementBytes + 7) & ~7L;
+    }
+
+    /**
+     * @return how many chars label and s.subSequence(from) have in common.
+     */
+    private static int commonPrefix(char[] label, CharSequence s, int from) {
+        int max = Math.min(label.length, s.length() - from);
+        int i = 0;
+        while (i < max && label[i] == s.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    static class Node {
+        /**
+         * the chars on the edge from the parent to this node.
+         */
+        char[] label;
+        boolean terminal;
+
+        /**
+         * children sorted by their first char, firsts[i] == children[i].label[0].
+         */
+        char[] firsts = NO_CHARS;
+        Node[] children = NO_NODES;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        int indexOf(char ch) {
+            return Arrays.binarySearch(this.firsts, ch);
+        }
+
+        void insertChild(int idx, Node child) {
+            int n = this.firsts.length;
+            char[] newFirsts = new char[n + 1];
+            Node[] newChildren = new Node[n + 1];
+            System.arraycopy(this.firsts, 0, newFirsts, 0, idx);
+            System.arraycopy(this.children, 0, newChildren, 0, idx);
+            newFirsts[idx] = child.label[0];
+            newChildren[idx] = child;
+            System.arraycopy(this.firsts, idx, newFirsts, idx + 1, n - idx);
+            System.arraycopy(this.children, idx, newChildren, idx + 1, n - idx);
+            this.firsts = newFirsts;
+            this.children = newChildren;
+        }
+
+        /**
+         * Split the edge to children[idx] after at chars, inserting a new node in between.
+         *
+         * @return the new node.
+         */
+        Node split(int idx, int at) {
+            Node child = this.children[idx];
+            Node middle = new Node(Arrays.copyOf(child.label, at));
+            child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+            middle.firsts = new char[]{child.label[0]};
+            middle.children = new Node[]{child};
+            this.children[idx] = middle;
+            return middle;
+        }
+    }
+
+    /**
+     * MemoryUsage is the estimated memory footprint of a {@link RadixTrie}.
+     */
+    public static class MemoryUsage {
+        private final long words;
+        private final long nodes;
+        private final long labelChars;
+        private final long childSlots;
+        private final long estimatedBytes;
+
+        MemoryUsage(long words, long nodes, long labelChars, long childSlots, long estimatedBytes) {
+            this.words = words;
+            this.nodes = nodes;
+            this.labelChars = labelChars;
+            this.childSlots = childSlots;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public long getWords() {
+            return words;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getLabelChars() {
+            return labelChars;
+        }
+
+        public long getChildSlots() {
+            return childSlots;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        /**
+         * @return the estimated bytes per word, 0 if empty.
+         */
+        public double getBytesPerWord() {
+            return words == 0 ? 0 : (double) estimatedBytes / words;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("words=%d, nodes=%d, labelChars=%d, childSlots=%d, estimatedBytes=%d (%.1f bytes/word)",
+                    words, nodes, labelChars, childSlots, estimatedBytes, getBytesPerWord());
+        }
+    }
+}
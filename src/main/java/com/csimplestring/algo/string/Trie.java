@@ -1,12 +1,25 @@
 package com.csimplestring.algo.string;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 /**
  * Trie is used to build a string trie structure to quickly search if a word exists in the given words dictionary.
+ * <p>
+ * It can also find all the words occurring in a text in one pass, see {@link #matcher()}.
  */
 public class Trie {
 
     private Node root;
 
+    /**
+     * whether the failure and output links of Aho-Corasick are built.
+     */
+    private boolean linked = false;
+
     public Trie(String[] words) {
         this.root = new Node();
         for (String word : words) {
@@ -27,10 +40,189 @@ public class Trie {
         return this.root;
     }
 
+    /**
+     * Create a multi-pattern matcher reporting every occurrence of every word in a text (Aho-Corasick).
+     * <p>
+     * Every node gets a failure link, pointing to the node of its longest proper suffix which is also in the trie,
+     * and an output link, pointing to the node of its longest proper suffix which is a word. Scanning a text then
+     * never goes backward: on a mismatch the matcher follows the failure links instead of restarting at the next
+     * position, so the whole text is scanned in O(n + number of matches), instead of O(n * L) for one walk per position.
+     * <p>
+     * The links are built once, on the first call. Each matcher carries its own state, so a matcher must not be shared
+     * between threads, but different matchers of the same trie can be used concurrently.
+     *
+     * @return a new matcher, positioned at the beginning of a stream.
+     */
+    public synchronized Matcher matcher() {
+        if (!this.linked) {
+            link();
+            this.linked = true;
+        }
+        return new Matcher();
+    }
+
+    /**
+     * Build the failure and output links in BFS order, so the links of shorter suffixes are always ready.
+     */
+    private void link() {
+        Deque<Node> queue = new ArrayDeque<>();
+        for (Node child : this.root.next) {
+            if (child != null) {
+                child.fail = this.root;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (int i = 0; i < node.next.length; i++) {
+                Node child = node.next[i];
+                if (child == null) {
+                    continue;
+                }
+
+                char ch = (char) ('a' + i);
+                Node f = node.fail;
+                while (f != this.root && f.child(ch) == null) {
+                    f = f.fail;
+                }
+                Node target = f.child(ch);
+                child.fail = target == null ? this.root : target;
+                // the root only holds the empty word, which is never reported
+                child.output = child.fail != this.root && child.fail.word != null ? child.fail : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * MatchListener receives the matches found by a {@link Matcher}.
+     */
+    public interface MatchListener {
+        /**
+         * Called for each occurrence of a word. When several words end at the same position, the longest comes first.
+         *
+         * @param word the matched word
+         * @param end  the offset right after the last char of the occurrence, counted from the beginning of the stream,
+         *             so the occurrence starts at end - word.length().
+         */
+        void onMatch(String word, long end);
+    }
+
+    /**
+     * Matcher scans a stream of chars, possibly split into several chunks: the state is carried over from one feed
+     * to the next, so a word crossing the boundary of two chunks is still found. Nothing is allocated per char.
+     */
+    public class Matcher {
+        private Node state = Trie.this.root;
+        private long position = 0;
+        private char[] buffer;
+
+        private Matcher() {
+        }
+
+        /**
+         * Scan a chunk of text.
+         *
+         * @param text     the chunk
+         * @param listener the listener to receive the matches
+         */
+        public void feed(CharSequence text, MatchListener listener) {
+            for (int i = 0; i < text.length(); i++) {
+                step(text.charAt(i), listener);
+            }
+        }
+
+        /**
+         * Scan a chunk of text.
+         *
+         * @param chars    the chunk
+         * @param offset   the start of the chunk in chars
+         * @param length   the length of the chunk
+         * @param listener the listener to receive the matches
+         */
+        public void feed(char[] chars, int offset, int length, MatchListener listener) {
+            for (int i = offset; i < offset + length; i++) {
+                step(chars[i], listener);
+            }
+        }
+
+        /**
+         * Scan the remaining chars of a buffer, the buffer position is moved to its limit.
+         *
+         * @param chars    the chunk
+         * @param listener the listener to receive the matches
+         */
+        public void feed(CharBuffer chars, MatchListener listener) {
+            if (chars.hasArray()) {
+                int offset = chars.arrayOffset() + chars.position();
+                feed(chars.array(), offset, chars.remaining(), listener);
+                chars.position(chars.limit());
+                return;
+            }
+            while (chars.hasRemaining()) {
+                step(chars.get(), listener);
+            }
+        }
+
+        /**
+         * Scan a reader until its end, the reader is not closed.
+         *
+         * @param reader   the reader
+         * @param listener the listener to receive the matches
+         * @throws IOException if the reader fails
+         */
+        public void feed(Reader reader, MatchListener listener) throws IOException {
+            if (this.buffer == null) {
+                this.buffer = new char[8192];
+            }
+            int n;
+            while ((n = reader.read(this.buffer)) != -1) {
+                feed(this.buffer, 0, n, listener);
+            }
+        }
+
+        /**
+         * Forget the current state and start a new stream at position 0.
+         */
+        public void reset() {
+            this.state = Trie.this.root;
+            this.position = 0;
+        }
+
+        /**
+         * @return how many chars have been scanned since the beginning of the stream.
+         */
+        public long position() {
+            return this.position;
+        }
+
+        private void step(char ch, MatchListener listener) {
+            Node node = this.state;
+            Node next;
+            while ((next = node.child(ch)) == null && node != Trie.this.root) {
+                node = node.fail;
+            }
+            this.state = next == null ? Trie.this.root : next;
+            this.position++;
+
+            Node out = this.state != Trie.this.root && this.state.word != null ? this.state : this.state.output;
+            for (; out != null; out = out.output) {
+                listener.onMatch(out.word, this.position);
+            }
+        }
+    }
+
     static class Node {
         String word;
         Node[] next;
 
+        /**
+         * Aho-Corasick links, see {@link #matcher()}.
+         */
+        Node fail;
+        Node output;
+
         public Node(Node[] next) {
             this.next = next;
         }
@@ -46,5 +238,18 @@ public class Trie {
 
             return this.next[ch - 'a'];
         }
+
+        /**
+         * Get the child of a char without creating it.
+         *
+         * @param ch any char, those out of 'a' to 'z' have no child.
+         * @return the child or null.
+         */
+        public Node child(char ch) {
+            if (ch < 'a' || ch > 'z') {
+                return null;
+            }
+            return this.next[ch - 'a'];
+        }
     }
 }
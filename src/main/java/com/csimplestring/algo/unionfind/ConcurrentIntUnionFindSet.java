@@ -0,0 +1,221 @@
+package com.csimplestring.algo.unionfind;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ConcurrentIntUnionFindSet} is a lock-free {@link IntUnionFindSet}: any number of threads can call
+ * {@link #union(int, int)}, {@link #find(int)} and {@link #isConnected(int, int)} at the same time.
+ * <p>
+ * The parents live in an {@link AtomicIntegerArray}:
+ * - union links a root under another root with a single CAS, and retries if the root was linked meanwhile;
+ * - find does path halving, pointing a node to its grandparent with a CAS which is simply skipped if it fails.
+ * <p>
+ * Every element gets a fixed pseudo-random priority (a bijective hash of its index), and a root is always linked
+ * under the root of higher priority. Priorities strictly increase along any path, so there is never a cycle,
+ * find is wait-free (it finishes in a bounded number of steps whatever the other threads do),
+ * and the random order keeps the trees shallow in expectation, like union by rank.
+ * <p>
+ * {@link #connectedComponents(int, int[], int[])} splits an edge list across the cores on fork-join.
+ * The resulting sets are exactly those of the sequential {@link IntUnionFindSet}, and
+ * {@link #components()} exports them in the same order.
+ */
+public class ConcurrentIntUnionFindSet {
+
+    /**
+     * edges handled by one fork-join task.
+     */
+    private static final int EDGES_PER_TASK = 1 << 14;
+
+    private final AtomicIntegerArray parents;
+    private final LongAdder merges = new LongAdder();
+
+    /**
+     * initialize n elements 0..n-1, each in its own set.
+     *
+     * @param n the number of elements
+     */
+    public ConcurrentIntUnionFindSet(int n) {
+        this.parents = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            this.parents.set(i, i);
+        }
+    }
+
+    /**
+     * Find the root of an element, wait-free.
+     *
+     * @param element the element
+     * @return its root at some moment during the call.
+     */
+    public int find(int element) {
+        int x = element;
+        while (true) {
+            int p = this.parents.get(x);
+            if (p == x) {
+                return x;
+            }
+            int g = this.parents.get(p);
+            if (p != g) {
+                // path halving, losing the race is harmless
+                this.parents.compareAndSet(x, p, g);
+            }
+            x = g;
+        }
+    }
+
+    /**
+     * Union a and b, lock-free.
+     *
+     * @param a one element
+     * @param b another element
+     * @return true if a and b were in different sets, i.e., this call merged them.
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            int r1 = find(a);
+            int r2 = find(b);
+            if (r1 == r2) {
+                return false;
+            }
+            if (priority(r1) > priority(r2)) {
+                int tmp = r1;
+                r1 = r2;
+                r2 = tmp;
+            }
+            // fails only if r1 stopped being a root meanwhile, then start over from the new roots
+            if (this.parents.compareAndSet(r1, r1, r2)) {
+                this.merges.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Check if a and b belong to the same set, lock-free.
+     *
+     * @param a one element
+     * @param b another element
+     * @return true if they belong to the same set.
+     */
+    public boolean isConnected(int a, int b) {
+        while (true) {
+            int r1 = find(a);
+            int r2 = find(b);
+            if (r1 == r2) {
+                return true;
+            }
+            // r1 still being a root means both roots were distinct at the same moment
+            if (this.parents.get(r1) == r1) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the number of sets, exact once the concurrent unions are done.
+     */
+    public int getRootNum() {
+        return (int) (this.parents.length() - this.merges.sum());
+    }
+
+    /**
+     * Export all the sets at once in O(n) time, once the concurrent unions are done.
+     *
+     * @return the sets grouped in CSR layout, see {@link IntUnionFindSet#components()}.
+     */
+    public IntUnionFindSet.Components components() {
+        int[] roots = new int[this.parents.length()];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = find(i);
+        }
+        return IntUnionFindSet.Components.group(roots);
+    }
+
+    /**
+     * Compute the connected components of a graph given as an edge list, using all the cores of the common pool.
+     * The number of vertices is the max vertex id + 1.
+     *
+     * @param src the source of each edge
+     * @param dst the destination of each edge
+     * @return the union find set holding the components
+     */
+    public static ConcurrentIntUnionFindSet connectedComponents(int[] src, int[] dst) {
+        int n = 0;
+        for (int i = 0; i < src.length; i++) {
+            n = Math.max(n, Math.max(src[i], dst[i]) + 1);
+        }
+        return connectedComponents(n, src, dst);
+    }
+
+    /**
+     * Compute the connected components of a graph given as an edge list, using all the cores of the common pool.
+     *
+     * @param n   the number of vertices, ids are 0..n-1
+     * @param src the source of each edge
+     * @param dst the destination of each edge
+     * @return the union find set holding the components
+     */
+    public static ConcurrentIntUnionFindSet connectedComponents(int n, int[] src, int[] dst) {
+        return connectedComponents(n, src, dst, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute the connected components of a graph given as an edge list on a given pool.
+     *
+     * @param n    the number of vertices, ids are 0..n-1
+     * @param src  the source of each edge
+     * @param dst  the destination of each edge
+     * @param pool the pool running the unions
+     * @return the union find set holding the components
+     */
+    public static ConcurrentIntUnionFindSet connectedComponents(int n, int[] src, int[] dst, ForkJoinPool pool) {
+        if (src.length != dst.length) {
+            throw new IllegalArgumentException("src and dst must have the same length");
+        }
+        ConcurrentIntUnionFindSet set = new ConcurrentIntUnionFindSet(n);
+        pool.invoke(new UnionTask(set, src, dst, 0, src.length));
+        return set;
+    }
+
+    /**
+     * A bijective mix of the index, so priorities are distinct and look random.
+     */
+    private static int priority(int x) {
+        int h = x * 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+    private static class UnionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+
+        private final ConcurrentIntUnionFindSet set;
+        private final int[] src;
+        private final int[] dst;
+        private final int from;
+        private final int to;
+
+        UnionTask(ConcurrentIntUnionFindSet set, int[] src, int[] dst, int from, int to) {
+            this.set = set;
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= EDGES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    set.union(src[i], dst[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new UnionTask(set, src, dst, from, mid), new UnionTask(set, src, dst, mid, to));
+        }
+    }
+}
@@ -4,15 +4,38 @@ package com.csimplestring.algo.unionfind;
  * {@link IntUnionFindSet} is designed for integer type element when dealing with union find problems.
  * It uses an int array internally to speed up the parent-lookup.
  * <p>
+ * The smaller tree is always linked under the bigger one (union by size), together with path compression
+ * it keeps the trees flat whatever the merge order is.
+ * <p>
  * If you are looking for a generic usage, @see {@link GenericUnionFindSet}
  */
 public class IntUnionFindSet {
     private int rootNum;
     private int[] parents;
+    private int[] sizes;
 
     public IntUnionFindSet(int rootNum, int[] parents) {
         this.rootNum = rootNum;
         this.parents = parents;
+        this.sizes = new int[parents.length];
+        for (int i = 0; i < parents.length; i++) {
+            this.sizes[find(i)]++;
+        }
+    }
+
+    /**
+     * initialize n elements 0..n-1, each in its own set.
+     *
+     * @param n the number of elements
+     */
+    public IntUnionFindSet(int n) {
+        this.rootNum = n;
+        this.parents = new int[n];
+        this.sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            this.parents[i] = i;
+            this.sizes[i] = 1;
+        }
     }
 
     public int find(int element) {
@@ -33,10 +56,141 @@ public class IntUnionFindSet {
         }
 
         this.rootNum--;
+        if (this.sizes[p1] > this.sizes[p2]) {
+            int tmp = p1;
+            p1 = p2;
+            p2 = tmp;
+        }
         this.parents[p1] = p2;
+        this.sizes[p2] += this.sizes[p1];
+    }
+
+    public boolean isConnected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * get the size of the set containing x.
+     *
+     * @param x the element
+     * @return how many elements are connected to x, including x itself.
+     */
+    public int componentSize(int x) {
+        return this.sizes[find(x)];
     }
 
     public int getRootNum() {
         return rootNum;
     }
+
+    /**
+     * Export all the sets at once in O(n) time, without one list per set.
+     *
+     * @return the sets grouped in CSR layout.
+     */
+    public Components components() {
+        int[] roots = new int[this.parents.length];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = find(i);
+        }
+        return Components.group(roots);
+    }
+
+    /**
+     * Components is the grouping of elements 0..n-1 into sets, in compressed sparse row (CSR) layout:
+     * the members of component c are members[offsets[c]] .. members[offsets[c + 1] - 1], in ascending order.
+     * Components are numbered by their smallest member, so component 0 contains element 0.
+     */
+    public static class Components {
+        private final int[] offsets;
+        private final int[] members;
+        private final int[] labels;
+
+        private Components(int[] offsets, int[] members, int[] labels) {
+            this.offsets = offsets;
+            this.members = members;
+            this.labels = labels;
+        }
+
+        /**
+         * Group elements by their representative with a counting sort, in O(n) time.
+         *
+         * @param roots roots[x] is the representative of x, it is overwritten by the component of x.
+         * @return the components
+         */
+        static Components group(int[] roots) {
+            int n = roots.length;
+            int[] label = new int[n];
+            for (int i = 0; i < n; i++) {
+                label[i] = -1;
+            }
+
+            int count = 0;
+            for (int x = 0; x < n; x++) {
+                int r = roots[x];
+                if (label[r] < 0) {
+                    label[r] = count++;
+                }
+                roots[x] = label[r];
+            }
+
+            int[] offsets = new int[count + 1];
+            for (int x = 0; x < n; x++) {
+                offsets[roots[x] + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                offsets[c + 1] += offsets[c];
+            }
+
+            // reuse label as the insertion cursor of each component
+            System.arraycopy(offsets, 0, label, 0, count);
+            int[] members = new int[n];
+            for (int x = 0; x < n; x++) {
+                members[label[roots[x]]++] = x;
+            }
+            return new Components(offsets, members, roots);
+        }
+
+        /**
+         * @return the number of components.
+         */
+        public int count() {
+            return offsets.length - 1;
+        }
+
+        /**
+         * @return the size of component c.
+         */
+        public int size(int c) {
+            return offsets[c + 1] - offsets[c];
+        }
+
+        /**
+         * @return the component of element x.
+         */
+        public int componentOf(int x) {
+            return labels[x];
+        }
+
+        /**
+         * @return offsets[c] is where component c starts in members, its length is count() + 1.
+         */
+        public int[] offsets() {
+            return offsets;
+        }
+
+        /**
+         * @return all elements, grouped by component.
+         */
+        public int[] members() {
+            return members;
+        }
+
+        /**
+         * @return labels[x] is the component of element x.
+         */
+        public int[] labels() {
+            return labels;
+        }
+    }
 }
@@ -0,0 +1,194 @@
+package com.csimplestring.algo.unionfind;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link InternedUnionFindSet} offers the same generic usage as {@link GenericUnionFindSet} with the speed of
+ * {@link IntUnionFindSet}: each element is interned once to a dense int id, and all the linking runs on int arrays.
+ * <p>
+ * An operation costs exactly one hash lookup per element, to get its id, whereas {@link GenericUnionFindSet} does
+ * several map get/put, thus hashCode/equals calls, per step of find. The arrays double when full, so elements can
+ * be added at any time.
+ *
+ * @param <T>
+ * @see https://en.wikipedia.org/wiki/Disjoint-set_data_structure
+ */
+public class InternedUnionFindSet<T> {
+
+    /**
+     * the largest array length the VM reliably allocates.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final Map<T, Integer> ids;
+    private Object[] elements;
+    private int[] parents;
+    private int[] sizes;
+    private int count = 0;
+    private int rootNum = 0;
+
+    /**
+     * initialize with empty data.
+     */
+    public InternedUnionFindSet() {
+        this(16);
+    }
+
+    /**
+     * initialize with empty data.
+     *
+     * @param initialCapacity the expected number of elements, used to avoid growing the arrays.
+     */
+    public InternedUnionFindSet(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.ids = new HashMap<>(capacity * 4 / 3 + 1);
+        this.elements = new Object[capacity];
+        this.parents = new int[capacity];
+        this.sizes = new int[capacity];
+    }
+
+    /**
+     * initialize with a list of elements. In the beginning, the parent of each element is itself.
+     *
+     * @param elements
+     */
+    public InternedUnionFindSet(List<T> elements) {
+        this(elements.size());
+        elements.forEach(this::add);
+    }
+
+    /**
+     * Add one element into the set, as a new root. Nothing happens if it already exists.
+     *
+     * @param element
+     */
+    public void add(T element) {
+        intern(element);
+    }
+
+    /**
+     * Find the root of a given element.
+     *
+     * @param element
+     * @return the root of element or null if no such element found.
+     */
+    public T find(T element) {
+        Integer id = this.ids.get(element);
+        if (id == null) {
+            return null;
+        }
+        return elementAt(findRoot(id));
+    }
+
+    /**
+     * Union t1 and t2, so they are pointed to the same root element. Missing elements are added first.
+     *
+     * @param t1
+     * @param t2
+     */
+    public void union(T t1, T t2) {
+        int p1 = findRoot(intern(t1));
+        int p2 = findRoot(intern(t2));
+        if (p1 == p2) {
+            return;
+        }
+
+        this.rootNum--;
+        if (this.sizes[p1] > this.sizes[p2]) {
+            int tmp = p1;
+            p1 = p2;
+            p2 = tmp;
+        }
+        this.parents[p1] = p2;
+        this.sizes[p2] += this.sizes[p1];
+    }
+
+    /**
+     * Check if t1 and t2 belongs to the same root.
+     *
+     * @param t1
+     * @param t2
+     * @return true if they belong to the same root otherwise false, including when one of them does not exist.
+     */
+    public boolean isConnected(T t1, T t2) {
+        Integer id1 = this.ids.get(t1);
+        Integer id2 = this.ids.get(t2);
+        if (id1 == null || id2 == null) {
+            return false;
+        }
+        return findRoot(id1) == findRoot(id2);
+    }
+
+    /**
+     * get the size of the set containing the element.
+     *
+     * @param element
+     * @return how many elements are connected to it, including itself, or 0 if it does not exist.
+     */
+    public int componentSize(T element) {
+        Integer id = this.ids.get(element);
+        return id == null ? 0 : this.sizes[findRoot(id)];
+    }
+
+    /**
+     * get the number of root elements.
+     *
+     * @return
+     */
+    public int getRootNum() {
+        return rootNum;
+    }
+
+    /**
+     * get the number of elements.
+     *
+     * @return
+     */
+    public int size() {
+        return count;
+    }
+
+    private int intern(T element) {
+        Integer id = this.ids.get(element);
+        if (id != null) {
+            return id;
+        }
+
+        if (this.count == this.parents.length) {
+            int length = this.parents.length;
+            if (length >= MAX_CAPACITY) {
+                throw new IllegalStateException("too many elements: " + length);
+            }
+            // grow by half, computed in long and capped, so it never overflows to a negative length
+            int capacity = (int) Math.min(Math.max(length + 1L, length + (long) (length >> 1)), MAX_CAPACITY);
+            this.elements = Arrays.copyOf(this.elements, capacity);
+            this.parents = Arrays.copyOf(this.parents, capacity);
+            this.sizes = Arrays.copyOf(this.sizes, capacity);
+        }
+        int newId = this.count++;
+        this.elements[newId] = element;
+        this.parents[newId] = newId;
+        this.sizes[newId] = 1;
+        this.ids.put(element, newId);
+        this.rootNum++;
+        return newId;
+    }
+
+    private int findRoot(int id) {
+        int x = id;
+        while (x != this.parents[x]) {
+            // path halving
+            this.parents[x] = this.parents[this.parents[x]];
+            x = this.parents[x];
+        }
+        return x;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int id) {
+        return (T) this.elements[id];
+    }
+}
@@ -0,0 +1,197 @@
+package com.csimplestring.algo.unionfind;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link OfflineDynamicConnectivity} answers "are u and v connected at this moment" over a graph whose edges are
+ * both added and removed, when all the operations are known in advance (offline).
+ * <p>
+ * Record the operations in time order with {@link #addEdge(int, int)}, {@link #removeEdge(int, int)} and
+ * {@link #query(int, int)}, then call {@link #solve()}. The idea (segment tree over time):
+ * - each edge is alive during an interval of queries, [first query after its addition, first query after its removal);
+ * - every interval is split into O(log q) nodes of a segment tree built over the q queries;
+ * - a DFS on the segment tree unions the edges of a node when entering it and rolls them back when leaving it,
+ * so at each leaf exactly the edges alive at that query are unioned.
+ * With a {@link RollbackIntUnionFindSet}, solving costs O((n + (m + q) * log(q)) * log(n)) for m edges.
+ */
+public class OfflineDynamicConnectivity {
+
+    private static final int ADD = 0;
+    private static final int REMOVE = 1;
+    private static final int QUERY = 2;
+
+    private final int n;
+    private int[] types = new int[16];
+    private int[] us = new int[16];
+    private int[] vs = new int[16];
+    private int opNum = 0;
+    private int queryNum = 0;
+
+    /**
+     * edges of the segment tree nodes, as linked lists: head[node] -> edge -> next[edge] -> ...
+     */
+    private int[] head;
+    private int[] next;
+    private int[] edgeU;
+    private int[] edgeV;
+    private int edgeNum;
+
+    /**
+     * Constructor.
+     *
+     * @param n the number of vertices, ids are 0..n-1
+     */
+    public OfflineDynamicConnectivity(int n) {
+        this.n = n;
+    }
+
+    /**
+     * Record the addition of an undirected edge, parallel edges are allowed.
+     *
+     * @param u one end
+     * @param v the other end
+     */
+    public void addEdge(int u, int v) {
+        record(ADD, u, v);
+    }
+
+    /**
+     * Record the removal of an undirected edge, which must have been added before.
+     *
+     * @param u one end
+     * @param v the other end
+     */
+    public void removeEdge(int u, int v) {
+        record(REMOVE, u, v);
+    }
+
+    /**
+     * Record a connectivity query.
+     *
+     * @param u one vertex
+     * @param v another vertex
+     * @return the index of the query in the array returned by {@link #solve()}.
+     */
+    public int query(int u, int v) {
+        record(QUERY, u, v);
+        return queryNum++;
+    }
+
+    /**
+     * Answer all the recorded queries.
+     *
+     * @return answers[i] is true if the vertices of query i were connected at that moment.
+     * @throws IllegalArgumentException if an edge is removed without being present.
+     */
+    public boolean[] solve() {
+        int q = queryNum;
+        boolean[] answers = new boolean[q];
+        if (q == 0) {
+            return answers;
+        }
+
+        int[] queryU = new int[q];
+        int[] queryV = new int[q];
+        head = new int[4 * q];
+        Arrays.fill(head, -1);
+        next = new int[16];
+        edgeU = new int[16];
+        edgeV = new int[16];
+        edgeNum = 0;
+
+        // alive edge -> the query times at which its copies were added
+        Map<Long, Deque<Integer>> alive = new HashMap<>();
+        int time = 0;
+        for (int i = 0; i < opNum; i++) {
+            int u = Math.min(us[i], vs[i]);
+            int v = Math.max(us[i], vs[i]);
+            long key = (long) u << 32 | v;
+            if (types[i] == QUERY) {
+                queryU[time] = us[i];
+                queryV[time] = vs[i];
+                time++;
+            } else if (types[i] == ADD) {
+                alive.computeIfAbsent(key, k -> new ArrayDeque<>()).push(time);
+            } else {
+                Deque<Integer> starts = alive.get(key);
+                if (starts == null || starts.isEmpty()) {
+                    throw new IllegalArgumentException("edge (" + us[i] + ", " + vs[i] + ") removed but not present");
+                }
+                insert(1, 0, q, starts.pop(), time, u, v);
+            }
+        }
+        for (Map.Entry<Long, Deque<Integer>> e : alive.entrySet()) {
+            int u = (int) (e.getKey() >>> 32);
+            int v = (int) (long) e.getKey();
+            for (int start : e.getValue()) {
+                insert(1, 0, q, start, q, u, v);
+            }
+        }
+
+        dfs(new RollbackIntUnionFindSet(n), 1, 0, q, queryU, queryV, answers);
+        return answers;
+    }
+
+    private void record(int type, int u, int v) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("vertex out of range: (" + u + ", " + v + ")");
+        }
+        if (opNum == types.length) {
+            types = Arrays.copyOf(types, opNum * 2);
+            us = Arrays.copyOf(us, opNum * 2);
+            vs = Arrays.copyOf(vs, opNum * 2);
+        }
+        types[opNum] = type;
+        us[opNum] = u;
+        vs[opNum] = v;
+        opNum++;
+    }
+
+    /**
+     * Attach the edge (u, v) alive during [from, to) to the nodes covering it, node covers [lo, hi).
+     */
+    private void insert(int node, int lo, int hi, int from, int to, int u, int v) {
+        if (to <= lo || hi <= from || from >= to) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            if (edgeNum == next.length) {
+                next = Arrays.copyOf(next, edgeNum * 2);
+                edgeU = Arrays.copyOf(edgeU, edgeNum * 2);
+                edgeV = Arrays.copyOf(edgeV, edgeNum * 2);
+            }
+            next[edgeNum] = head[node];
+            edgeU[edgeNum] = u;
+            edgeV[edgeNum] = v;
+            head[node] = edgeNum++;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        insert(2 * node, lo, mid, from, to, u, v);
+        insert(2 * node + 1, mid, hi, from, to, u, v);
+    }
+
+    /**
+     * The recursion is only log(q) deep.
+     */
+    private void dfs(RollbackIntUnionFindSet set, int node, int lo, int hi, int[] queryU, int[] queryV,
+                     boolean[] answers) {
+        int checkpoint = set.checkpoint();
+        for (int e = head[node]; e >= 0; e = next[e]) {
+            set.union(edgeU[e], edgeV[e]);
+        }
+
+        if (hi - lo == 1) {
+            answers[lo] = set.isConnected(queryU[lo], queryV[lo]);
+        } else {
+            int mid = (lo + hi) >>> 1;
+            dfs(set, 2 * node, lo, mid, queryU, queryV, answers);
+            dfs(set, 2 * node + 1, mid, hi, queryU, queryV, answers);
+        }
+        set.rollback(checkpoint);
+    }
+}
@@ -0,0 +1,124 @@
+package com.csimplestring.algo.unionfind;
+
+import java.util.Arrays;
+
+/**
+ * {@link RollbackIntUnionFindSet} is an {@link IntUnionFindSet} whose unions can be undone.
+ * <p>
+ * Path compression rewrites many parents in one find, which can not be undone cheaply, so this variant
+ * relies on union by rank only: trees are still at most log(n) deep, so find is O(log n), and a union changes
+ * exactly one parent (plus maybe one rank). Each union is pushed on an undo log, {@link #checkpoint()} marks
+ * the current position of the log and {@link #rollback(int)} pops the unions done since then.
+ * <p>
+ * It is the building block of offline dynamic connectivity, see {@link OfflineDynamicConnectivity}.
+ */
+public class RollbackIntUnionFindSet {
+    private int rootNum;
+    private final int[] parents;
+    private final int[] ranks;
+
+    /**
+     * the linked roots, in union order. A root whose new parent got its rank increased is stored as ~root.
+     */
+    private int[] log = new int[16];
+    private int logSize = 0;
+
+    /**
+     * initialize n elements 0..n-1, each in its own set.
+     *
+     * @param n the number of elements
+     */
+    public RollbackIntUnionFindSet(int n) {
+        this.rootNum = n;
+        this.parents = new int[n];
+        this.ranks = new int[n];
+        for (int i = 0; i < n; i++) {
+            this.parents[i] = i;
+        }
+    }
+
+    /**
+     * Find the root of an element in O(log n), without modifying anything.
+     *
+     * @param element the element
+     * @return its root
+     */
+    public int find(int element) {
+        int x = element;
+        while (x != this.parents[x]) {
+            x = this.parents[x];
+        }
+        return x;
+    }
+
+    /**
+     * Union a and b.
+     *
+     * @param a one element
+     * @param b another element
+     * @return true if they were in different sets, only such unions are logged.
+     */
+    public boolean union(int a, int b) {
+        int p1 = find(a);
+        int p2 = find(b);
+        if (p1 == p2) {
+            return false;
+        }
+
+        if (this.ranks[p1] > this.ranks[p2]) {
+            int tmp = p1;
+            p1 = p2;
+            p2 = tmp;
+        }
+        boolean increased = this.ranks[p1] == this.ranks[p2];
+        this.parents[p1] = p2;
+        if (increased) {
+            this.ranks[p2]++;
+        }
+        this.rootNum--;
+
+        if (this.logSize == this.log.length) {
+            this.log = Arrays.copyOf(this.log, this.logSize * 2);
+        }
+        this.log[this.logSize++] = increased ? ~p1 : p1;
+        return true;
+    }
+
+    public boolean isConnected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public int getRootNum() {
+        return rootNum;
+    }
+
+    /**
+     * Mark the current state.
+     *
+     * @return the checkpoint to pass to {@link #rollback(int)}.
+     */
+    public int checkpoint() {
+        return this.logSize;
+    }
+
+    /**
+     * Undo all the unions done since a checkpoint, in reverse order.
+     *
+     * @param checkpoint a value returned by {@link #checkpoint()}, checkpoints taken after it become invalid.
+     */
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > this.logSize) {
+            throw new IllegalArgumentException("invalid checkpoint: " + checkpoint);
+        }
+        while (this.logSize > checkpoint) {
+            int entry = this.log[--this.logSize];
+            int child = entry < 0 ? ~entry : entry;
+            int parent = this.parents[child];
+            if (entry < 0) {
+                this.ranks[parent]--;
+            }
+            this.parents[child] = child;
+            this.rootNum++;
+        }
+    }
+}